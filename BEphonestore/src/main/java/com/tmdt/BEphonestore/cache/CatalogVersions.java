@@ -0,0 +1,86 @@
+package com.tmdt.BEphonestore.cache;
+
+import com.tmdt.BEphonestore.event.CategoryChangedEvent;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
+import com.tmdt.BEphonestore.event.ProductsImportedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bộ đếm phiên bản của catalog, tăng sau khi commit mỗi thay đổi Product/Category.
+ * Controller dùng để tạo ETag/Last-Modified và trả 304 mà không cần truy vấn DB.
+ *
+ * ETag chứa thời điểm khởi động nên bộ đếm reset khi restart không làm client nhận nhầm 304.
+ * Thay đổi trước khi khởi động không được biết, nên Last-Modified tối thiểu là thời điểm khởi động.
+ */
+@Component
+public class CatalogVersions {
+
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private volatile Version catalog = version("c", 0L, startedAt);
+    private volatile Version categories = version("k", 0L, startedAt);
+    private final Map<Long, Version> products = new ConcurrentHashMap<>();
+
+    /**
+     * Phiên bản chung cho các danh sách (sản phẩm, hãng kèm số sản phẩm)
+     */
+    public Version catalog() {
+        return catalog;
+    }
+
+    /**
+     * Phiên bản của một sản phẩm; đổi cả khi tên hãng của nó có thể đã đổi
+     */
+    public Version product(Long id) {
+        Version product = products.get(id);
+        Version category = categories;
+        long productVersion = product != null ? product.getVersion() : 0L;
+        long modifiedAt = Math.max(product != null ? product.getLastModified() : startedAt, category.getLastModified());
+        return version("p" + id + "-" + productVersion, category.getVersion(), modifiedAt);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        long next = sequence.incrementAndGet();
+        long now = System.currentTimeMillis();
+        products.put(event.getProductId(), new Version(null, next, now));
+        catalog = version("c", next, now);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsImported(ProductsImportedEvent event) {
+        long next = sequence.incrementAndGet();
+        long now = System.currentTimeMillis();
+        Version updated = new Version(null, next, now);
+        event.getUpdatedIds().forEach(id -> products.put(id, updated));
+        catalog = version("c", next, now);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        long next = sequence.incrementAndGet();
+        long now = System.currentTimeMillis();
+        categories = version("k", next, now);
+        catalog = version("c", next, now);
+    }
+
+    private Version version(String scope, long version, long lastModified) {
+        return new Version("W/\"" + scope + "-" + startedAt + "-" + version + "\"", version, lastModified);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Version {
+        private final String etag;
+        private final long version;
+        private final long lastModified;
+    }
+}
@@ -0,0 +1,99 @@
+package com.tmdt.BEphonestore.cache;
+
+import com.tmdt.BEphonestore.dto.response.CategoryResponse;
+import com.tmdt.BEphonestore.event.CategoryChangedEvent;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
+import com.tmdt.BEphonestore.event.ProductsImportedEvent;
+import com.tmdt.BEphonestore.mapper.CategoryMapper;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshot danh sách hãng kèm số sản phẩm. Nạp lại bằng hai truy vấn (danh sách hãng và
+ * COUNT ... GROUP BY) chỉ khi có hãng/sản phẩm được thêm, xóa hoặc đổi hãng.
+ */
+@Component
+public class CategorySnapshot {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final CategoryMapper categoryMapper;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile List<CategoryResponse> snapshot; // null = cần nạp lại
+
+    public CategorySnapshot(CategoryRepository categoryRepository, ProductRepository productRepository,
+            CategoryMapper categoryMapper) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.categoryMapper = categoryMapper;
+    }
+
+    public List<CategoryResponse> getAll() {
+        List<CategoryResponse> current = snapshot;
+        return current != null ? current : load();
+    }
+
+    /**
+     * @return null nếu không có hãng này
+     */
+    public CategoryResponse get(Long id) {
+        for (CategoryResponse category : getAll()) {
+            if (category.getId().equals(id)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Đổi tồn kho không làm thay đổi số sản phẩm của hãng
+        if (event.getType() != ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            invalidate();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private synchronized List<CategoryResponse> load() {
+        List<CategoryResponse> current = snapshot;
+        if (current == null) {
+            long loadedGeneration = generation.get();
+
+            Map<Long, Integer> counts = new HashMap<>();
+            for (Object[] row : productRepository.countGroupByCategory()) {
+                counts.put((Long) row[0], ((Number) row[1]).intValue());
+            }
+            current = categoryRepository.findAll().stream()
+                    .map(category -> categoryMapper.toResponse(category, counts.getOrDefault(category.getId(), 0)))
+                    .toList();
+
+            // Có thay đổi trong lúc đang nạp thì không giữ kết quả cũ
+            if (generation.get() == loadedGeneration) {
+                snapshot = current;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tmdt.BEphonestore.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tmdt.BEphonestore.dto.response.CacheStatsResponse;
+import com.tmdt.BEphonestore.dto.response.ProductResponse;
+import com.tmdt.BEphonestore.event.CategoryChangedEvent;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
+import com.tmdt.BEphonestore.event.ProductsImportedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Cache read-through cho ProductResponse theo id, giới hạn theo số lượng và TTL.
+ * Một key đang được nạp chỉ chạy một lần truy vấn DB, các request đồng thời chờ kết quả.
+ * Entry bị xóa sau khi commit mọi thay đổi liên quan tới sản phẩm hoặc tên hãng.
+ */
+@Component
+public class ProductCache {
+
+    private final Cache<Long, ProductResponse> cache;
+
+    public ProductCache(@Value("${app.cache.product.max-size:10000}") long maxSize,
+            @Value("${app.cache.product.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Lấy từ cache, nếu chưa có thì gọi loader (chỉ một lần cho mỗi key)
+     */
+    public ProductResponse get(Long id, Function<Long, ProductResponse> loader) {
+        return cache.get(id, loader);
+    }
+
+    /**
+     * Lấy nhiều id một lúc; các id chưa có trong cache được nạp cùng nhau bằng một lần gọi loader.
+     * Id không tồn tại không có trong kết quả.
+     */
+    public Map<Long, ProductResponse> getAll(Iterable<Long> ids,
+            Function<Set<? extends Long>, Map<Long, ProductResponse>> loader) {
+        return cache.getAll(ids, loader);
+    }
+
+    public ProductResponse getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void put(ProductResponse response) {
+        cache.put(response.getId(), response);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        cache.invalidate(event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        cache.invalidateAll(event.getUpdatedIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.asMap().values().removeIf(p -> event.getCategoryId().equals(p.getCategoryId()));
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsResponse.builder()
+                .name("product")
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .loadCount(stats.loadCount())
+                .evictionCount(stats.evictionCount())
+                .averageLoadMillis(stats.averageLoadPenalty() / 1_000_000.0)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+package com.tmdt.BEphonestore.cart;
+
+import com.tmdt.BEphonestore.dto.response.CartSweepStatsResponse;
+import com.tmdt.BEphonestore.event.CartsSweptEvent;
+import com.tmdt.BEphonestore.repository.CartItemRepository;
+import com.tmdt.BEphonestore.repository.CartRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dọn giỏ hàng bỏ quên: giỏ (và mọi dòng của nó) không được sửa trong app.cart.retention.
+ *
+ * Duyệt keyset theo (updatedAt, id) từng khối app.cart.sweep-chunk-size giỏ. Mỗi khối là một
+ * transaction ngắn gồm hai câu DELETE theo tập (dòng rồi giỏ rỗng), mỗi câu tự kiểm tra lại điều kiện
+ * cũ nên giỏ vừa được dùng lại trong lúc quét không bị xóa. Nghỉ app.cart.sweep-pause giữa các khối
+ * để không giữ lock lâu trên Cart/CartItem khi đang có khách đặt hàng.
+ */
+@Slf4j
+@Component
+public class AbandonedCartSweeper {
+
+    // Mốc bắt đầu keyset, nhỏ hơn mọi updatedAt hợp lệ (datetime của SQL Server bắt đầu từ 1753)
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong totalItemsDeleted = new AtomicLong();
+    private final AtomicLong totalCartsDeleted = new AtomicLong();
+
+    // Tiến độ lần chạy hiện tại (hoặc gần nhất)
+    private volatile LocalDateTime cutoff;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong cartsScanned = new AtomicLong();
+    private final AtomicLong itemsDeleted = new AtomicLong();
+    private final AtomicLong cartsDeleted = new AtomicLong();
+
+    public AbandonedCartSweeper(CartRepository cartRepository,
+            CartItemRepository cartItemRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.cart.retention:P90D}") Duration retention,
+            @Value("${app.cart.sweep-chunk-size:500}") int chunkSize,
+            @Value("${app.cart.sweep-pause:PT0.2S}") Duration pause,
+            @Value("${app.cart.sweep-statement-timeout:5}") int statementTimeoutSeconds) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(statementTimeoutSeconds);
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pause.toMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.sweep-interval:PT1H}",
+            initialDelayString = "${app.cart.sweep-initial-delay:PT5M}")
+    public void sweep() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            run();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void run() {
+        LocalDateTime runCutoff = LocalDateTime.now().minus(retention);
+        cutoff = runCutoff;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        chunks.set(0);
+        cartsScanned.set(0);
+        itemsDeleted.set(0);
+        cartsDeleted.set(0);
+        totalRuns.incrementAndGet();
+
+        LocalDateTime afterUpdatedAt = KEYSET_START;
+        Long afterId = 0L;
+        List<Object[]> chunk;
+        try {
+            do {
+                chunk = cartRepository.findStaleAfter(runCutoff, afterUpdatedAt, afterId,
+                        PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                List<Long> cartIds = new ArrayList<>(chunk.size());
+                List<Long> userIds = new ArrayList<>(chunk.size());
+                for (Object[] row : chunk) {
+                    cartIds.add((Long) row[0]);
+                    userIds.add((Long) row[1]);
+                }
+                Object[] last = chunk.get(chunk.size() - 1);
+                afterId = (Long) last[0];
+                afterUpdatedAt = (LocalDateTime) last[2];
+
+                int[] deleted = transactionTemplate.execute(status -> new int[] {
+                        cartItemRepository.deleteStaleByCartIdIn(cartIds, runCutoff),
+                        cartRepository.deleteStaleEmpty(cartIds, runCutoff)
+                });
+                eventPublisher.publishEvent(new CartsSweptEvent(userIds));
+
+                chunks.incrementAndGet();
+                cartsScanned.addAndGet(chunk.size());
+                itemsDeleted.addAndGet(deleted[0]);
+                cartsDeleted.addAndGet(deleted[1]);
+                totalItemsDeleted.addAndGet(deleted[0]);
+                totalCartsDeleted.addAndGet(deleted[1]);
+
+                if (chunk.size() == chunkSize && pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            } while (chunk.size() == chunkSize);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            lastError = "Interrupted";
+        } catch (RuntimeException ex) {
+            // Khối lỗi bị bỏ qua, lần chạy sau quét lại từ đầu
+            lastError = ex.getMessage();
+            log.error("Abandoned cart sweep stopped after {} chunks: {}", chunks.get(), ex.getMessage());
+        }
+        finishedAt = LocalDateTime.now();
+        log.info("Swept abandoned carts older than {}: {} scanned, {} items and {} carts deleted in {} ms",
+                runCutoff, cartsScanned.get(), itemsDeleted.get(), cartsDeleted.get(),
+                Duration.between(startedAt, finishedAt).toMillis());
+    }
+
+    public CartSweepStatsResponse stats() {
+        return CartSweepStatsResponse.builder()
+                .running(running.get())
+                .retention(retention.toString())
+                .cutoff(cutoff)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .chunks(chunks.get())
+                .cartsScanned(cartsScanned.get())
+                .itemsDeleted(itemsDeleted.get())
+                .cartsDeleted(cartsDeleted.get())
+                .totalRuns(totalRuns.get())
+                .totalItemsDeleted(totalItemsDeleted.get())
+                .totalCartsDeleted(totalCartsDeleted.get())
+                .lastError(lastError)
+                .build();
+    }
+}
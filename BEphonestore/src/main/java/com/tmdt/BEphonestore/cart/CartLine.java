@@ -0,0 +1,21 @@
+package com.tmdt.BEphonestore.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Một dòng trong giỏ hàng kèm thông tin sản phẩm để hiển thị.
+ * id là id mà client dùng để sửa/xóa dòng (id CartItem, hoặc id sản phẩm với MemoryCartStore).
+ */
+@Getter
+@AllArgsConstructor
+public class CartLine {
+    private final Long id;
+    private final Long productId;
+    private final int quantity;
+    private final String productName;
+    private final String productImage;
+    private final BigDecimal productPrice;
+}
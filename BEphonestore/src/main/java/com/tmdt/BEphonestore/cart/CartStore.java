@@ -0,0 +1,33 @@
+package com.tmdt.BEphonestore.cart;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Nơi lưu giỏ hàng theo user id. Mặc định là {@link JpaCartStore} (ghi thẳng xuống DB);
+ * app.cart.store=memory dùng {@link MemoryCartStore} (giữ trong bộ nhớ, ghi xuống DB theo lô).
+ * Kiểm tra sản phẩm/tồn kho thuộc về CartService, store chỉ lưu số lượng.
+ */
+public interface CartStore {
+
+    StoredCart load(Long userId);
+
+    /**
+     * Đặt số lượng của sản phẩm trong giỏ; quantity = 0 để xóa dòng
+     */
+    void setQuantity(Long userId, Long productId, int quantity);
+
+    /**
+     * Đọc - sửa - ghi toàn bộ giỏ một cách nguyên tử. mutation nhận bản sao productId -> số lượng
+     * (theo thứ tự thêm vào) và sửa trực tiếp; số lượng <= 0 là xóa dòng.
+     * Nếu mutation ném exception thì giỏ không thay đổi.
+     */
+    void update(Long userId, Consumer<Map<Long, Integer>> mutation);
+
+    /**
+     * @return id sản phẩm của dòng itemId trong giỏ của user, null nếu không có
+     */
+    Long findProductId(Long userId, Long itemId);
+
+    void clear(Long userId);
+}
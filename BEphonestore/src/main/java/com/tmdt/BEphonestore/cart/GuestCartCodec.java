@@ -0,0 +1,95 @@
+package com.tmdt.BEphonestore.cart;
+
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Giỏ hàng của khách chưa đăng nhập được giữ ở client dưới dạng token ký HMAC-SHA256,
+ * server không lưu gì. Token: base64url("hạn-dùng;productId:qty,productId:qty") + "." + base64url(chữ ký).
+ * Token hết hạn được coi như giỏ rỗng; token bị sửa hoặc sai định dạng bị từ chối.
+ */
+@Component
+public class GuestCartCodec {
+
+    public static final int MAX_LINES = 50;
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public GuestCartCodec(@Value("${app.cart.guest-secret:${jwt.secret}}") String secret,
+            @Value("${app.cart.guest-ttl:P30D}") Duration ttl) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttl = ttl;
+    }
+
+    public String encode(Map<Long, Integer> lines) {
+        if (lines.size() > MAX_LINES) {
+            throw new BadRequestException("Guest cart can hold at most " + MAX_LINES + " products");
+        }
+        StringJoiner items = new StringJoiner(",");
+        lines.forEach((productId, quantity) -> items.add(productId + ":" + quantity));
+        String payload = Instant.now().plus(ttl).getEpochSecond() + ";" + items;
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return encoder.encodeToString(payloadBytes) + "." + encoder.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * @return productId -> số lượng theo thứ tự thêm vào; rỗng nếu không có token hoặc token đã hết hạn
+     */
+    public Map<Long, Integer> decode(String token) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        if (token == null || token.isBlank()) {
+            return lines;
+        }
+        try {
+            int dot = token.indexOf('.');
+            byte[] payloadBytes = Base64.getUrlDecoder().decode(token.substring(0, dot));
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(payloadBytes))) {
+                throw new BadRequestException("Invalid guest cart token");
+            }
+
+            String payload = new String(payloadBytes, StandardCharsets.UTF_8);
+            int separator = payload.indexOf(';');
+            if (Long.parseLong(payload.substring(0, separator)) < Instant.now().getEpochSecond()) {
+                return lines;
+            }
+            String items = payload.substring(separator + 1);
+            if (!items.isEmpty()) {
+                for (String item : items.split(",")) {
+                    int colon = item.indexOf(':');
+                    lines.put(Long.parseLong(item.substring(0, colon)), Integer.parseInt(item.substring(colon + 1)));
+                }
+            }
+            return lines;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new BadRequestException("Invalid guest cart token");
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Could not sign guest cart", ex);
+        }
+    }
+}
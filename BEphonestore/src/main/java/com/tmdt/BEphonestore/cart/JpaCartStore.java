@@ -0,0 +1,176 @@
+package com.tmdt.BEphonestore.cart;
+
+import com.tmdt.BEphonestore.entity.Cart;
+import com.tmdt.BEphonestore.entity.CartItem;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import com.tmdt.BEphonestore.repository.CartItemRepository;
+import com.tmdt.BEphonestore.repository.CartRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import com.tmdt.BEphonestore.repository.UserRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Giỏ hàng lưu trực tiếp trong bảng Cart/CartItem, mỗi thao tác một transaction
+ */
+@Component
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate createCartTransaction;
+
+    public JpaCartStore(CartRepository cartRepository, CartItemRepository cartItemRepository,
+            ProductRepository productRepository, UserRepository userRepository,
+            PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.createCartTransaction = new TransactionTemplate(transactionManager);
+        this.createCartTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Giỏ được tạo khi thêm sản phẩm lần đầu. Hai request đầu tiên của cùng user có thể cùng không thấy giỏ:
+     * giỏ được chèn trong transaction riêng để lỗi trùng userId của request thua không làm hỏng
+     * transaction hiện tại, rồi đọc lại giỏ mà request kia đã tạo
+     */
+    private Cart getOrCreateCart(Long userId) {
+        return cartRepository.findByUserId(userId)
+                .orElseGet(() -> {
+                    try {
+                        createCartTransaction.executeWithoutResult(status -> cartRepository.save(Cart.builder()
+                                .user(userRepository.getReferenceById(userId))
+                                .build()));
+                    } catch (DataIntegrityViolationException ex) {
+                        // Request khác vừa tạo giỏ
+                    }
+                    return cartRepository.findByUserId(userId)
+                            .orElseThrow(() -> new IllegalStateException("Cart of user " + userId + " was not created"));
+                });
+    }
+
+    /**
+     * Một truy vấn JOIN lấy giỏ, các dòng và sản phẩm (không nạp lazy từng sản phẩm)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public StoredCart load(Long userId) {
+        List<Object[]> rows = cartRepository.findContentsByUserId(userId);
+        if (rows.isEmpty()) {
+            // Chưa có giỏ: chỉ tạo khi thêm sản phẩm lần đầu
+            return new StoredCart(null, List.of());
+        }
+
+        List<CartLine> lines = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                lines.add(new CartLine((Long) row[1], (Long) row[2], (Integer) row[3],
+                        (String) row[4], (String) row[5], (BigDecimal) row[6]));
+            }
+        }
+        return new StoredCart((Long) rows.get(0)[0], lines);
+    }
+
+    @Override
+    @Transactional
+    public void setQuantity(Long userId, Long productId, int quantity) {
+        Cart cart = getOrCreateCart(userId);
+        CartItem existingItem = cartItemRepository
+                .findByCartIdAndProductId(cart.getId(), productId)
+                .orElse(null);
+
+        if (quantity <= 0) {
+            if (existingItem != null) {
+                cartItemRepository.delete(existingItem);
+            }
+        } else if (existingItem != null) {
+            existingItem.setQuantity(quantity);
+            cartItemRepository.save(existingItem);
+        } else {
+            CartItem newItem = CartItem.builder()
+                    .cart(cart)
+                    .product(productRepository.getReferenceById(productId))
+                    .quantity(quantity)
+                    .build();
+            cartItemRepository.save(newItem);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void update(Long userId, Consumer<Map<Long, Integer>> mutation) {
+        Cart cart = getOrCreateCart(userId);
+        Map<Long, CartItem> items = new LinkedHashMap<>();
+        for (CartItem item : cartItemRepository.findByCartId(cart.getId())) {
+            items.put(item.getProduct().getId(), item);
+        }
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        items.forEach((productId, item) -> quantities.put(productId, item.getQuantity()));
+
+        mutation.accept(quantities);
+
+        List<CartItem> toSave = new ArrayList<>();
+        List<CartItem> toDelete = new ArrayList<>();
+        items.forEach((productId, item) -> {
+            Integer quantity = quantities.get(productId);
+            if (quantity == null || quantity <= 0) {
+                toDelete.add(item);
+            } else if (!quantity.equals(item.getQuantity())) {
+                item.setQuantity(quantity);
+                toSave.add(item);
+            }
+        });
+        quantities.forEach((productId, quantity) -> {
+            if (!items.containsKey(productId) && quantity != null && quantity > 0) {
+                toSave.add(CartItem.builder()
+                        .cart(cart)
+                        .product(productRepository.getReferenceById(productId))
+                        .quantity(quantity)
+                        .build());
+            }
+        });
+
+        if (!toDelete.isEmpty()) {
+            cartItemRepository.deleteAllInBatch(toDelete);
+        }
+        cartItemRepository.saveAll(toSave);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Long findProductId(Long userId, Long itemId) {
+        CartItem cartItem = cartItemRepository.findById(itemId).orElse(null);
+        if (cartItem == null) {
+            return null;
+        }
+        // Verify item belongs to user's cart
+        if (!cartItem.getCart().getUser().getId().equals(userId)) {
+            throw new BadRequestException("Cart item does not belong to you");
+        }
+        return cartItem.getProduct().getId();
+    }
+
+    @Override
+    @Transactional
+    public void clear(Long userId) {
+        cartRepository.findByUserId(userId)
+                .ifPresent(cart -> cartItemRepository.deleteByCartId(cart.getId()));
+    }
+}
@@ -0,0 +1,420 @@
+package com.tmdt.BEphonestore.cart;
+
+import com.tmdt.BEphonestore.cache.ProductCache;
+import com.tmdt.BEphonestore.dto.response.ProductResponse;
+import com.tmdt.BEphonestore.entity.Cart;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.event.CartsSweptEvent;
+import com.tmdt.BEphonestore.mapper.ProductMapper;
+import com.tmdt.BEphonestore.repository.CartItemRepository;
+import com.tmdt.BEphonestore.repository.CartRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Giỏ hàng giữ trong bộ nhớ theo user id, đọc/ghi không chạm DB (trừ lần nạp đầu tiên của một user).
+ *
+ * Mỗi user được khóa theo một trong STRIPES lock nên các user khác nhau không chặn nhau.
+ * Giỏ bị sửa được đánh dấu dirty và ghi xuống Cart/CartItem theo lô mỗi app.cart.flush-interval
+ * (thay toàn bộ dòng của giỏ bằng JDBC batch), và khi ứng dụng tắt. Lô lỗi do dữ liệu được ghi lại
+ * từng giỏ; giỏ vẫn lỗi bị tạm gác (giữ trong bộ nhớ) cho tới khi user sửa giỏ lần nữa.
+ *
+ * Độ bền: nếu tiến trình chết đột ngột, các thay đổi chưa kịp ghi (tối đa một chu kỳ flush) bị mất.
+ * Khôi phục: sau khi khởi động lại, giỏ được nạp lại từ DB ở lần truy cập đầu tiên.
+ * Chỉ dùng khi chạy một instance (hoặc sticky session theo user), vì mỗi instance giữ bản riêng.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "memory")
+public class MemoryCartStore implements CartStore {
+
+    private static final int STRIPES = 64;
+    private static final int EXISTING_IDS_CHUNK = 1000; // SQL Server giới hạn 2100 tham số mỗi câu lệnh
+
+    private static final String INSERT_CART_SQL =
+            "INSERT INTO cart (user_id, created_at, updated_at) VALUES (?, ?, ?)";
+    private static final String TOUCH_CART_SQL = "UPDATE cart SET updated_at = ? WHERE id = ?";
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_item WHERE cart_id = ?";
+    // Id lấy thẳng từ sequence của CartItem: mỗi giá trị chỉ cấp một lần nên không trùng khối id Hibernate giữ
+    private static final String INSERT_ITEM_SQL = "INSERT INTO cart_item (id, cart_id, product_id, quantity, " +
+            "created_at, updated_at) VALUES (NEXT VALUE FOR cart_item_seq, ?, ?, ?, ?, ?)";
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ProductCache productCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int flushBatchSize;
+    private final long idleTimeoutMillis;
+
+    private final Object[] locks = new Object[STRIPES];
+    private final Map<Long, MemoryCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<Long> parked = ConcurrentHashMap.newKeySet(); // ghi lỗi, chờ user sửa giỏ
+
+    public MemoryCartStore(CartRepository cartRepository,
+            CartItemRepository cartItemRepository,
+            ProductRepository productRepository,
+            ProductMapper productMapper,
+            ProductCache productCache,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.cart.flush-batch-size:500}") int flushBatchSize,
+            @Value("${app.cart.idle-timeout:PT30M}") Duration idleTimeout) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.productCache = productCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushBatchSize = flushBatchSize;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    private Object lock(Long userId) {
+        return locks[Long.hashCode(userId) & (STRIPES - 1)];
+    }
+
+    /**
+     * Giỏ của user trong bộ nhớ; gọi khi đang giữ lock(userId)
+     */
+    private MemoryCart cartOf(Long userId) {
+        MemoryCart cart = carts.get(userId);
+        if (cart == null) {
+            cart = new MemoryCart();
+            cart.cartId = cartRepository.findByUserId(userId).map(Cart::getId).orElse(null);
+            if (cart.cartId != null) {
+                for (Object[] row : cartItemRepository.findLinesByCartId(cart.cartId)) {
+                    cart.lines.merge((Long) row[0], (Integer) row[1], Integer::sum);
+                }
+            }
+            carts.put(userId, cart);
+        }
+        cart.lastAccess = System.currentTimeMillis();
+        return cart;
+    }
+
+    @Override
+    public StoredCart load(Long userId) {
+        Long cartId;
+        Map<Long, Integer> lines;
+        synchronized (lock(userId)) {
+            MemoryCart cart = cartOf(userId);
+            cartId = cart.cartId;
+            lines = new LinkedHashMap<>(cart.lines);
+        }
+        if (lines.isEmpty()) {
+            return new StoredCart(cartId, List.of());
+        }
+
+        Map<Long, ProductResponse> products = productCache.getAll(lines.keySet(),
+                missing -> productRepository.findAllWithCategoryByIdIn(new ArrayList<>(missing)).stream()
+                        .collect(Collectors.toMap(Product::getId, productMapper::toResponse)));
+
+        List<CartLine> result = new ArrayList<>(lines.size());
+        lines.forEach((productId, quantity) -> {
+            ProductResponse product = products.get(productId);
+            // Sản phẩm đã bị xóa thì không hiển thị
+            if (product != null) {
+                result.add(new CartLine(productId, productId, quantity,
+                        product.getName(), product.getImageUrl(), product.getPrice()));
+            }
+        });
+        return new StoredCart(cartId, result);
+    }
+
+    @Override
+    public void setQuantity(Long userId, Long productId, int quantity) {
+        synchronized (lock(userId)) {
+            MemoryCart cart = cartOf(userId);
+            if (quantity <= 0) {
+                cart.lines.remove(productId);
+            } else {
+                cart.lines.put(productId, quantity);
+            }
+            dirty.add(userId);
+        }
+    }
+
+    @Override
+    public void update(Long userId, Consumer<Map<Long, Integer>> mutation) {
+        synchronized (lock(userId)) {
+            MemoryCart cart = cartOf(userId);
+            Map<Long, Integer> lines = new LinkedHashMap<>(cart.lines);
+            mutation.accept(lines);
+            lines.values().removeIf(quantity -> quantity == null || quantity <= 0);
+            if (!lines.equals(cart.lines)) {
+                cart.lines.clear();
+                cart.lines.putAll(lines);
+                dirty.add(userId);
+            }
+        }
+    }
+
+    @Override
+    public Long findProductId(Long userId, Long itemId) {
+        // Id dòng chính là id sản phẩm
+        synchronized (lock(userId)) {
+            return cartOf(userId).lines.containsKey(itemId) ? itemId : null;
+        }
+    }
+
+    @Override
+    public void clear(Long userId) {
+        // Trong transaction (vd. đặt hàng) chỉ xóa giỏ khi transaction commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doClear(userId);
+                }
+            });
+        } else {
+            doClear(userId);
+        }
+    }
+
+    private void doClear(Long userId) {
+        synchronized (lock(userId)) {
+            MemoryCart cart = cartOf(userId);
+            if (!cart.lines.isEmpty()) {
+                cart.lines.clear();
+                dirty.add(userId);
+            }
+        }
+    }
+
+    /**
+     * Giỏ đã bị xóa khỏi DB: bỏ bản sạch trong bộ nhớ; bản đang chờ ghi thì quên cartId cũ
+     * để lần flush sau tạo lại giỏ
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartsSwept(CartsSweptEvent event) {
+        for (Long userId : event.getUserIds()) {
+            synchronized (lock(userId)) {
+                MemoryCart cart = carts.get(userId);
+                if (cart == null) {
+                    continue;
+                }
+                if (dirty.contains(userId)) {
+                    cart.cartId = null;
+                } else {
+                    carts.remove(userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ghi các giỏ dirty xuống DB theo lô, rồi bỏ khỏi bộ nhớ các giỏ đã ghi và lâu không dùng
+     */
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval:PT2S}",
+            initialDelayString = "${app.cart.flush-interval:PT2S}")
+    public void flush() {
+        List<Long> userIds = new ArrayList<>(dirty);
+        for (int from = 0; from < userIds.size(); from += flushBatchSize) {
+            List<Pending> batch = takeDirty(userIds.subList(from, Math.min(from + flushBatchSize, userIds.size())));
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                dropDeletedProducts(batch);
+                write(batch);
+                written(batch);
+            } catch (DataIntegrityViolationException ex) {
+                // Một giỏ lỗi không được chặn cả lô: ghi lại từng giỏ
+                log.warn("Could not flush {} carts as one batch, retrying each cart: {}", batch.size(), ex.getMessage());
+                batch.forEach(this::writeAlone);
+            } catch (RuntimeException ex) {
+                // Lỗi không do dữ liệu (vd. mất kết nối): giữ lại để thử lần sau
+                batch.forEach(pending -> dirty.add(pending.userId));
+                log.error("Could not flush {} carts: {}", batch.size(), ex.getMessage());
+            }
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (!dirty.isEmpty() || !parked.isEmpty()) {
+            log.warn("{} carts could not be flushed on shutdown", dirty.size() + parked.size());
+        }
+    }
+
+    private void writeAlone(Pending pending) {
+        try {
+            write(List.of(pending));
+            written(List.of(pending));
+        } catch (DataIntegrityViolationException ex) {
+            parked.add(pending.userId);
+            log.error("Could not flush cart of user {}, parked until it changes: {}", pending.userId, ex.getMessage());
+        } catch (RuntimeException ex) {
+            dirty.add(pending.userId);
+            log.error("Could not flush cart of user {}: {}", pending.userId, ex.getMessage());
+        }
+    }
+
+    private void written(List<Pending> batch) {
+        for (Pending pending : batch) {
+            synchronized (lock(pending.userId)) {
+                parked.remove(pending.userId);
+                MemoryCart cart = carts.get(pending.userId);
+                if (cart != null && cart.cartId == null) {
+                    cart.cartId = pending.cartId;
+                }
+            }
+        }
+    }
+
+    /**
+     * Bỏ các dòng của sản phẩm đã bị xóa (khóa ngoại sẽ làm hỏng cả lô), cả trong bộ nhớ
+     */
+    private void dropDeletedProducts(List<Pending> batch) {
+        List<Long> productIds = batch.stream()
+                .flatMap(pending -> pending.lines.keySet().stream())
+                .distinct()
+                .toList();
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < productIds.size(); from += EXISTING_IDS_CHUNK) {
+            existing.addAll(productRepository.findExistingIds(
+                    productIds.subList(from, Math.min(from + EXISTING_IDS_CHUNK, productIds.size()))));
+        }
+        for (Pending pending : batch) {
+            List<Long> deleted = pending.lines.keySet().stream()
+                    .filter(productId -> !existing.contains(productId))
+                    .toList();
+            if (deleted.isEmpty()) {
+                continue;
+            }
+            deleted.forEach(pending.lines::remove);
+            synchronized (lock(pending.userId)) {
+                MemoryCart cart = carts.get(pending.userId);
+                if (cart != null) {
+                    deleted.forEach(cart.lines::remove);
+                }
+            }
+        }
+    }
+
+    private List<Pending> takeDirty(List<Long> userIds) {
+        List<Pending> batch = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            synchronized (lock(userId)) {
+                MemoryCart cart = carts.get(userId);
+                if (dirty.remove(userId) && cart != null) {
+                    batch.add(new Pending(userId, cart.cartId, new LinkedHashMap<>(cart.lines)));
+                }
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Một transaction cho cả lô: tạo Cart còn thiếu, xóa rồi chèn lại toàn bộ CartItem
+     */
+    private void write(List<Pending> batch) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Pending> withoutCart = batch.stream().filter(pending -> pending.cartId == null).toList();
+            if (!withoutCart.isEmpty()) {
+                assignCartIds(withoutCart);
+                List<Pending> toCreate = withoutCart.stream().filter(pending -> pending.cartId == null).toList();
+                if (!toCreate.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_CART_SQL, toCreate, toCreate.size(), (ps, pending) -> {
+                        ps.setLong(1, pending.userId);
+                        ps.setTimestamp(2, now);
+                        ps.setTimestamp(3, now);
+                    });
+                    assignCartIds(toCreate);
+                }
+            }
+
+            jdbcTemplate.batchUpdate(TOUCH_CART_SQL, batch, batch.size(), (ps, pending) -> {
+                ps.setTimestamp(1, now);
+                ps.setLong(2, pending.cartId);
+            });
+            jdbcTemplate.batchUpdate(DELETE_ITEMS_SQL, batch, batch.size(),
+                    (ps, pending) -> ps.setLong(1, pending.cartId));
+
+            List<Object[]> items = new ArrayList<>();
+            for (Pending pending : batch) {
+                pending.lines.forEach((productId, quantity) ->
+                        items.add(new Object[] { pending.cartId, productId, quantity, now, now }));
+            }
+            if (!items.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items);
+            }
+        });
+    }
+
+    private void assignCartIds(List<Pending> batch) {
+        Map<Long, Long> cartIds = new HashMap<>();
+        List<Long> userIds = batch.stream().map(pending -> pending.userId).toList();
+        for (Object[] row : cartRepository.findIdsByUserIdIn(userIds)) {
+            cartIds.put((Long) row[0], (Long) row[1]);
+        }
+        batch.forEach(pending -> pending.cartId = cartIds.get(pending.userId));
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        for (Long userId : new ArrayList<>(carts.keySet())) {
+            synchronized (lock(userId)) {
+                MemoryCart cart = carts.get(userId);
+                if (cart != null && cart.lastAccess < cutoff && !dirty.contains(userId) && !parked.contains(userId)) {
+                    carts.remove(userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Chỉ truy cập khi giữ lock của user
+     */
+    private static class MemoryCart {
+        Long cartId;
+        final Map<Long, Integer> lines = new LinkedHashMap<>(); // productId -> số lượng, theo thứ tự thêm
+        volatile long lastAccess;
+    }
+
+    @AllArgsConstructor
+    private static class Pending {
+        final Long userId;
+        Long cartId;
+        final Map<Long, Integer> lines;
+    }
+}
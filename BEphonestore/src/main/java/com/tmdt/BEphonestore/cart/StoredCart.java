@@ -0,0 +1,16 @@
+package com.tmdt.BEphonestore.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Nội dung giỏ hàng của một user; cartId null nếu giỏ chưa được ghi xuống DB
+ */
+@Getter
+@AllArgsConstructor
+public class StoredCart {
+    private final Long cartId;
+    private final List<CartLine> lines;
+}
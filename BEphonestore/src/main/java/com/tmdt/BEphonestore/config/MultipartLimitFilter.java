@@ -0,0 +1,57 @@
+package com.tmdt.BEphonestore.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Giới hạn multipart của container (spring.servlet.multipart.*) được nâng cho file nhập sản phẩm.
+ * Các request multipart khác bị chặn ở app.upload.max-request-size theo Content-Length,
+ * chạy trước mọi filter khác để container chưa đọc phần thân.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MultipartLimitFilter extends OncePerRequestFilter {
+
+    // Đường dẫn không gồm context-path
+    private static final Set<String> LARGE_UPLOAD_PATHS = Set.of("/admin/products/import");
+
+    private final long maxRequestSize;
+
+    public MultipartLimitFilter(@Value("${app.upload.max-request-size:10MB}") DataSize maxRequestSize) {
+        this.maxRequestSize = maxRequestSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType == null
+                || !contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)
+                || LARGE_UPLOAD_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        long length = request.getContentLengthLong();
+        // Không biết độ dài (chunked) thì cũng không kiểm soát được, từ chối luôn
+        if (length < 0 || length > maxRequestSize) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+                    "Upload must be at most " + DataSize.ofBytes(maxRequestSize).toMegabytes() + "MB");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -89,6 +89,7 @@ public class SecurityConfig {
 
                         // Customer endpoints
                         .requestMatchers("/user/**").hasAnyRole("CUSTOMER", "ADMIN")
+                        .requestMatchers("/cart/guest/**").permitAll()
                         .requestMatchers("/cart/**").hasAnyRole("CUSTOMER", "ADMIN")
                         .requestMatchers("/orders/**").hasAnyRole("CUSTOMER", "ADMIN")
                         .requestMatchers("/payment/**").hasAnyRole("CUSTOMER", "ADMIN")
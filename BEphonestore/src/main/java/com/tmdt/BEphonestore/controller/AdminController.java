@@ -1,12 +1,24 @@
 package com.tmdt.BEphonestore.controller;
 
+import com.tmdt.BEphonestore.cache.ProductCache;
+import com.tmdt.BEphonestore.cart.AbandonedCartSweeper;
 import com.tmdt.BEphonestore.dto.request.UpdateOrderStatusRequest;
+import com.tmdt.BEphonestore.dto.response.CacheStatsResponse;
+import com.tmdt.BEphonestore.dto.response.CartSweepStatsResponse;
+import com.tmdt.BEphonestore.dto.response.OrderIntakeStatsResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
 import com.tmdt.BEphonestore.dto.response.OrderDetailResponse;
 import com.tmdt.BEphonestore.dto.response.OrderResponse;
+import com.tmdt.BEphonestore.dto.response.ProductImportResponse;
 import com.tmdt.BEphonestore.dto.response.UserResponse;
+import com.tmdt.BEphonestore.enums.ExportFormat;
 import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import com.tmdt.BEphonestore.order.OrderIntakeQueue;
+import com.tmdt.BEphonestore.search.ProductIndexManager;
 import com.tmdt.BEphonestore.service.OrderService;
+import com.tmdt.BEphonestore.service.ProductExportService;
+import com.tmdt.BEphonestore.service.ProductImportService;
 import com.tmdt.BEphonestore.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,9 +26,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * Admin Controller
@@ -32,12 +54,35 @@ public class AdminController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private ProductIndexManager productIndexManager;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private AbandonedCartSweeper abandonedCartSweeper;
+
+    @Autowired(required = false)
+    private OrderIntakeQueue orderIntakeQueue;
+
     // ===== USER MANAGEMENT =====
 
     @GetMapping("/users")
-    public ResponseEntity<Page<UserResponse>> getAllUsers(
+    public ResponseEntity<?> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            return ResponseEntity.ok(userService.getAllUsersAfter(after, size));
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<UserResponse> users = userService.getAllUsers(pageable);
@@ -78,9 +123,14 @@ public class AdminController {
     // ===== ORDER MANAGEMENT =====
 
     @GetMapping("/orders")
-    public ResponseEntity<Page<OrderResponse>> getAllOrders(
+    public ResponseEntity<?> getAllOrders(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            return ResponseEntity.ok(orderService.getAllOrdersAfter(after, size));
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<OrderResponse> orders = orderService.getAllOrders(pageable);
@@ -116,4 +166,73 @@ public class AdminController {
         MessageResponse response = orderService.updateOrderStatus(id, request);
         return ResponseEntity.ok(response);
     }
+
+    // ===== CATALOG EXPORT =====
+
+    /**
+     * Xuất catalog cho các sàn (NDJSON hoặc CSV), truyền dần ra response.
+     * since: chỉ lấy sản phẩm cập nhật từ thời điểm này (đồng bộ tăng dần)
+     */
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        String filename = "products-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+                + "." + exportFormat.getExtension();
+
+        StreamingResponseBody body = out -> productExportService.exportProducts(exportFormat, since, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .body(body);
+    }
+
+    /**
+     * Nhập sản phẩm hàng loạt từ CSV/NDJSON (định dạng đoán theo đuôi file nếu không truyền),
+     * images: file zip chứa ảnh, dòng tham chiếu ảnh bằng tên file ở cột imageUrl
+     */
+    @PostMapping(value = "/products/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "images", required = false) MultipartFile images,
+            @RequestParam(required = false) String format) {
+
+        ExportFormat importFormat = format != null
+                ? ExportFormat.fromParam(format)
+                : ExportFormat.fromFileName(file.getOriginalFilename());
+        return ResponseEntity.ok(productImportService.importProducts(file, importFormat, images));
+    }
+
+    @GetMapping("/orders/intake")
+    public ResponseEntity<OrderIntakeStatsResponse> getOrderIntakeStats() {
+        if (orderIntakeQueue == null) {
+            throw new BadRequestException("Asynchronous order intake is disabled");
+        }
+        return ResponseEntity.ok(orderIntakeQueue.stats());
+    }
+
+    // ===== SEARCH INDEX =====
+
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<MessageResponse> rebuildSearchIndex() {
+        long count = productIndexManager.rebuildAll();
+        return ResponseEntity.ok(new MessageResponse("Product indexes rebuilt successfully", count));
+    }
+
+    // ===== CACHE =====
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(List.of(productCache.stats()));
+    }
+
+    // ===== CART SWEEPER =====
+
+    @GetMapping("/carts/sweep")
+    public ResponseEntity<CartSweepStatsResponse> getCartSweepStats() {
+        return ResponseEntity.ok(abandonedCartSweeper.stats());
+    }
 }
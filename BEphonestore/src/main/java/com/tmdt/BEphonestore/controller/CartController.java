@@ -1,5 +1,6 @@
 package com.tmdt.BEphonestore.controller;
 
+import com.tmdt.BEphonestore.dto.request.CartBatchRequest;
 import com.tmdt.BEphonestore.dto.request.CartItemRequest;
 import com.tmdt.BEphonestore.dto.response.CartResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
@@ -33,6 +34,12 @@ public class CartController {
         return ResponseEntity.ok(cart);
     }
 
+    @PatchMapping
+    public ResponseEntity<CartResponse> updateCart(@Valid @RequestBody CartBatchRequest request) {
+        CartResponse cart = cartService.updateCart(request);
+        return ResponseEntity.ok(cart);
+    }
+
     @PutMapping("/update/{itemId}")
     public ResponseEntity<CartResponse> updateCartItem(@PathVariable Long itemId,
             @RequestParam Integer quantity) {
@@ -1,15 +1,18 @@
 package com.tmdt.BEphonestore.controller;
 
+import com.tmdt.BEphonestore.cache.CatalogVersions;
 import com.tmdt.BEphonestore.dto.request.CategoryRequest;
 import com.tmdt.BEphonestore.dto.response.CategoryResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
 import com.tmdt.BEphonestore.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -21,16 +24,32 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    /**
+     * Số sản phẩm theo hãng phụ thuộc cả Product nên dùng phiên bản chung của catalog
+     */
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getAllCategories() {
+    public ResponseEntity<List<CategoryResponse>> getAllCategories(WebRequest webRequest) {
+        CatalogVersions.Version version = catalogVersions.catalog();
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
         List<CategoryResponse> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categories);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
+        CatalogVersions.Version version = catalogVersions.catalog();
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
         CategoryResponse category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(category);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(category);
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
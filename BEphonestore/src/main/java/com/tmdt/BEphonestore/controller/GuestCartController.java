@@ -0,0 +1,35 @@
+package com.tmdt.BEphonestore.controller;
+
+import com.tmdt.BEphonestore.dto.request.CartBatchRequest;
+import com.tmdt.BEphonestore.dto.response.GuestCartResponse;
+import com.tmdt.BEphonestore.service.CartService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Guest Cart Controller - giỏ hàng cho khách chưa đăng nhập, không ghi DB
+ */
+@RestController
+@RequestMapping("/cart/guest")
+public class GuestCartController {
+
+    public static final String TOKEN_HEADER = "X-Guest-Cart";
+
+    @Autowired
+    private CartService cartService;
+
+    @GetMapping
+    public ResponseEntity<GuestCartResponse> getGuestCart(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        return ResponseEntity.ok(cartService.getGuestCart(token));
+    }
+
+    @PatchMapping
+    public ResponseEntity<GuestCartResponse> updateGuestCart(
+            @RequestHeader(value = TOKEN_HEADER, required = false) String token,
+            @Valid @RequestBody CartBatchRequest request) {
+        return ResponseEntity.ok(cartService.updateGuestCart(token, request));
+    }
+}
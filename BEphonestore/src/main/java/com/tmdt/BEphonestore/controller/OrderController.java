@@ -4,7 +4,10 @@ import com.tmdt.BEphonestore.dto.request.OrderRequest;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
 import com.tmdt.BEphonestore.dto.response.OrderDetailResponse;
 import com.tmdt.BEphonestore.dto.response.OrderResponse;
+import com.tmdt.BEphonestore.dto.response.OrderTicketResponse;
 import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import com.tmdt.BEphonestore.order.OrderIntakeQueue;
 import com.tmdt.BEphonestore.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +15,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Order Controller
  */
@@ -27,16 +33,50 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    // Chỉ có khi app.order.intake.enabled=true
+    @Autowired(required = false)
+    private OrderIntakeQueue orderIntakeQueue;
+
     @PostMapping
     public ResponseEntity<OrderDetailResponse> createOrder(@Valid @RequestBody OrderRequest request) {
         OrderDetailResponse order = orderService.createOrder(request);
         return ResponseEntity.ok(order);
     }
 
+    /**
+     * Xếp yêu cầu đặt hàng vào hàng đợi, trả 202 kèm phiếu để hỏi lại trạng thái
+     */
+    @PostMapping("/async")
+    public ResponseEntity<OrderTicketResponse> submitOrder(@Valid @RequestBody OrderRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(getIntakeQueue().submit(request));
+    }
+
+    /**
+     * wait > 0: giữ yêu cầu tối đa wait giây đến khi phiếu xong (không chiếm luồng Tomcat)
+     */
+    @GetMapping("/tickets/{ticketId}")
+    public CompletableFuture<OrderTicketResponse> getOrderTicket(
+            @PathVariable String ticketId,
+            @RequestParam(defaultValue = "0") int wait) {
+        return getIntakeQueue().getTicket(ticketId, Math.min(wait, 30));
+    }
+
+    private OrderIntakeQueue getIntakeQueue() {
+        if (orderIntakeQueue == null) {
+            throw new BadRequestException("Asynchronous order intake is disabled");
+        }
+        return orderIntakeQueue;
+    }
+
     @GetMapping
-    public ResponseEntity<Page<OrderResponse>> getMyOrders(
+    public ResponseEntity<?> getMyOrders(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after) {
+
+        if (after != null) {
+            return ResponseEntity.ok(orderService.getMyOrdersAfter(after, size));
+        }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
         Page<OrderResponse> orders = orderService.getMyOrders(pageable);
@@ -1,8 +1,18 @@
 package com.tmdt.BEphonestore.controller;
 
+import com.tmdt.BEphonestore.cache.CatalogVersions;
+import com.tmdt.BEphonestore.dto.request.ProductBatchRequest;
+import com.tmdt.BEphonestore.dto.request.ProductFilterRequest;
 import com.tmdt.BEphonestore.dto.request.ProductRequest;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
+import com.tmdt.BEphonestore.dto.response.ProductBatchResponse;
+import com.tmdt.BEphonestore.dto.response.ProductComparisonResponse;
+import com.tmdt.BEphonestore.dto.response.ProductFacetResponse;
 import com.tmdt.BEphonestore.dto.response.ProductResponse;
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
+import com.tmdt.BEphonestore.dto.response.SuggestionResponse;
+import com.tmdt.BEphonestore.enums.BestSellerWindow;
+import com.tmdt.BEphonestore.exception.BadRequestException;
 import com.tmdt.BEphonestore.service.ProductService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,13 +20,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/products")
@@ -25,38 +38,122 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    /**
+     * Có tham số "after" (kể cả rỗng cho trang đầu) thì dùng keyset pagination theo id.
+     * Trả 304 nếu catalog không đổi kể từ ETag/Last-Modified client gửi lên.
+     */
     @GetMapping
-    public ResponseEntity<Page<ProductResponse>> getAllProducts(
+    public ResponseEntity<?> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "DESC") String sortDir) {
+            @RequestParam(defaultValue = "DESC") String sortDir,
+            @RequestParam(required = false) String after,
+            WebRequest webRequest) {
+
+        CatalogVersions.Version version = catalogVersions.catalog();
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
+        if (after != null) {
+            if (!sortBy.equals("id")) {
+                throw new BadRequestException("Cursor pagination only supports sortBy=id");
+            }
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(productService.getActiveProductsAfter(after, size, sortDir.equalsIgnoreCase("ASC")));
+        }
 
         Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponse> products = productService.getActiveProducts(pageable);
-        return ResponseEntity.ok(products);
+        Page<ProductSummaryResponse> products = productService.getActiveProducts(pageable);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(products);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        CatalogVersions.Version version = catalogVersions.product(id);
+        if (webRequest.checkNotModified(version.getEtag(), version.getLastModified())) {
+            return null;
+        }
+
         ProductResponse product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(product);
+    }
+
+    /**
+     * Lấy nhiều sản phẩm theo id (giỏ hàng, so sánh...), giữ thứ tự id và trả về các id không tồn tại
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@RequestParam List<Long> ids) {
+        ProductBatchResponse result = productService.getProductsByIds(ids);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@Valid @RequestBody ProductBatchRequest request) {
+        ProductBatchResponse result = productService.getProductsByIds(request.getIds());
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/compare")
+    public ResponseEntity<ProductComparisonResponse> compareProducts(@RequestParam List<Long> ids) {
+        ProductComparisonResponse result = productService.compareProducts(ids);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<ProductSummaryResponse>> getRelatedProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "8") int limit) {
+
+        List<ProductSummaryResponse> products = productService.getRelatedProducts(id, limit);
+        return ResponseEntity.ok(products);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<ProductResponse>> searchProducts(
+    public ResponseEntity<Page<ProductSummaryResponse>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> products = productService.searchProducts(keyword, pageable);
+        Page<ProductSummaryResponse> products = productService.searchProducts(keyword, pageable);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "8") int limit) {
+
+        List<SuggestionResponse> suggestions = productService.suggest(query, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/new-arrivals")
+    public ResponseEntity<List<ProductSummaryResponse>> getNewArrivals(
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<ProductSummaryResponse> products = productService.getNewArrivals(limit);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/best-sellers")
+    public ResponseEntity<List<ProductSummaryResponse>> getBestSellers(
+            @RequestParam(defaultValue = "30d") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<ProductSummaryResponse> products = productService.getBestSellers(BestSellerWindow.fromParam(window),
+                limit);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<ProductResponse>> getProductsByCategory(
+    public ResponseEntity<Page<ProductSummaryResponse>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
@@ -65,22 +162,33 @@ public class ProductController {
 
         Sort sort = sortDir.equalsIgnoreCase("ASC") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponse> products = productService.getProductsByCategory(categoryId, pageable);
+        Page<ProductSummaryResponse> products = productService.getProductsByCategory(categoryId, pageable);
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/price-range")
-    public ResponseEntity<Page<ProductResponse>> getProductsByPriceRange(
+    public ResponseEntity<Page<ProductSummaryResponse>> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
             @RequestParam BigDecimal maxPrice,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size) {
 
         Pageable pageable = PageRequest.of(page, size);
-        Page<ProductResponse> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
+        Page<ProductSummaryResponse> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/filter")
+    public ResponseEntity<ProductFacetResponse> filterProducts(
+            @ModelAttribute ProductFilterRequest filter,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+
+        Pageable pageable = PageRequest.of(page, size);
+        ProductFacetResponse result = productService.filterProducts(filter, pageable);
+        return ResponseEntity.ok(result);
+    }
+
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductResponse> createProduct(
@@ -0,0 +1,21 @@
+package com.tmdt.BEphonestore.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Nhiều thao tác trên giỏ hàng, áp dụng theo thứ tự và cùng thành công hoặc cùng thất bại
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequest {
+
+    @NotEmpty(message = "Operations are required")
+    @Size(max = 100, message = "At most 100 operations per request")
+    private List<@Valid CartOperationRequest> operations;
+}
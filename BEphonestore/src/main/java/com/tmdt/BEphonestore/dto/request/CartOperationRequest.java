@@ -0,0 +1,24 @@
+package com.tmdt.BEphonestore.dto.request;
+
+import com.tmdt.BEphonestore.enums.CartOperationType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * Một thao tác trên giỏ hàng, theo id sản phẩm
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationRequest {
+
+    @NotNull(message = "Operation is required")
+    private CartOperationType op;
+
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    @Min(value = 0, message = "Quantity must be at least 0")
+    private Integer quantity; // bỏ qua với REMOVE
+}
@@ -19,4 +19,7 @@ public class LoginRequest {
     @NotBlank(message = "Password is required")
     @Size(min = 6, message = "Password must be at least 6 characters")
     private String password;
+
+    // Token giỏ hàng khách (nếu có), được gộp vào giỏ của user sau khi đăng nhập
+    private String guestCart;
 }
\ No newline at end of file
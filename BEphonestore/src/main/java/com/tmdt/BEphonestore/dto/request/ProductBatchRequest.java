@@ -0,0 +1,18 @@
+package com.tmdt.BEphonestore.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Product Batch Request DTO (danh sách id dài, dùng cho POST /products/batch)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+
+    @NotEmpty(message = "Product ids are required")
+    private List<Long> ids;
+}
@@ -0,0 +1,31 @@
+package com.tmdt.BEphonestore.dto.request;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Product Filter Request DTO (lọc kết hợp nhiều thuộc tính)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterRequest {
+
+    private List<Long> categoryIds;
+
+    // Khóa khoảng giá, ví dụ "5000000-10000000" hoặc "30000000+"
+    private List<String> priceBands;
+
+    private BigDecimal minPrice;
+
+    private BigDecimal maxPrice;
+
+    private Boolean inStock;
+
+    private String keyword;
+
+    // Điều kiện thông số, ví dụ "ram>=8", "storage=128|256", "chip=snapdragon"
+    private List<String> spec;
+}
@@ -0,0 +1,31 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO trả về tiến độ/kết quả của lần dọn giỏ hàng bỏ quên gần nhất
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSweepStatsResponse {
+    private boolean running;
+    private String retention;
+    private LocalDateTime cutoff;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long chunks;
+    private long cartsScanned;
+    private long itemsDeleted;
+    private long cartsDeleted;
+    private long totalRuns;
+    private long totalItemsDeleted;
+    private long totalCartsDeleted;
+    private String lastError;
+}
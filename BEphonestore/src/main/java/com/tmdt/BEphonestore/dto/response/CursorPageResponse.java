@@ -0,0 +1,23 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO trả về một trang theo con trỏ (keyset pagination).
+ * Không có tổng số bản ghi; dùng nextCursor làm tham số "after" cho trang tiếp theo.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // null nếu là trang cuối
+}
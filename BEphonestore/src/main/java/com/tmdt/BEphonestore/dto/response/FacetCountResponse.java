@@ -0,0 +1,19 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Số sản phẩm của một giá trị facet (hãng, khoảng giá, ...)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountResponse {
+    private String value;
+    private String label;
+    private long count;
+}
@@ -0,0 +1,16 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Giỏ hàng của khách: client lưu token và gửi lại trong header X-Guest-Cart ở request sau
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartResponse {
+    private String token;
+    private CartResponse cart;
+}
@@ -0,0 +1,16 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lỗi của một dòng khi nhập sản phẩm (row tính từ 1, không kể dòng tiêu đề)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowError {
+    private long row;
+    private String message;
+}
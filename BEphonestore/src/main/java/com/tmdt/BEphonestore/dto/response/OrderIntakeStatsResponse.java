@@ -0,0 +1,29 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO trả về thống kê hàng đợi đặt hàng bất đồng bộ
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeStatsResponse {
+    private int queueDepth;
+    private int capacity;
+    private int workers;
+    private long accepted;
+    private long rejected;
+    private long completed;
+    private long failed;
+    private double averageWaitMillis;
+    private long maxWaitMillis;
+    private long batches;
+    private double averageBatchSize;
+    private int lastBatchSize;
+    private long batchFallbacks;
+}
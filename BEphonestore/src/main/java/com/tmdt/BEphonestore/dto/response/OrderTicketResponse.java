@@ -0,0 +1,26 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import com.tmdt.BEphonestore.enums.OrderTicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO trả về phiếu đặt hàng bất đồng bộ; orderId/orderCode có khi COMPLETED, message khi FAILED
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTicketResponse {
+    private String ticketId;
+    private OrderTicketStatus status;
+    private Long orderId;
+    private String orderCode;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
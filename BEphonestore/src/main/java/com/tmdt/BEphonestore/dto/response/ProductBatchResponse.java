@@ -0,0 +1,20 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO trả về nhiều sản phẩm theo thứ tự id đã yêu cầu, kèm các id không tồn tại
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private List<ProductResponse> products;
+    private List<Long> missingIds;
+}
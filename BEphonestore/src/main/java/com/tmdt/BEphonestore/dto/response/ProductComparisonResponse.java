@@ -0,0 +1,21 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO trả về bảng so sánh thông số giữa các sản phẩm
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductComparisonResponse {
+    private List<ProductSummaryResponse> products;
+    private List<SpecRowResponse> rows;
+    private List<Long> missingIds;
+}
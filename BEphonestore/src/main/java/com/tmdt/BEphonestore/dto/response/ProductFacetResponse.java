@@ -0,0 +1,24 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * DTO trả về kết quả lọc sản phẩm kèm số lượng theo từng facet
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResponse {
+    private Page<ProductSummaryResponse> products;
+    private List<FacetCountResponse> categories; // số sản phẩm theo hãng
+    private List<FacetCountResponse> priceBands; // số sản phẩm theo khoảng giá
+    private long inStockCount; // còn hàng
+    private long outOfStockCount; // hết hàng
+}
@@ -0,0 +1,25 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Kết quả nhập sản phẩm hàng loạt. errors chỉ giữ tối đa một số lỗi đầu tiên, failed là tổng số dòng lỗi
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private long totalRows;
+    private long created;
+    private long updated;
+    private long failed;
+    private int imagesStored;
+    private long durationMillis;
+    private List<ImportRowError> errors;
+}
@@ -0,0 +1,32 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO tóm tắt Product cho các trang danh sách (không có description/specifications).
+ * Được dựng trực tiếp bằng constructor expression trong JPQL, thứ tự field phải khớp với câu SELECT.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryResponse {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Integer stock;
+    private String imageUrl;
+    private ProductStatus status;
+
+    private Long categoryId;
+    private String categoryName;
+
+    private LocalDateTime createdAt;
+}
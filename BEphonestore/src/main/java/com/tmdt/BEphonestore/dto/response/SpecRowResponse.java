@@ -0,0 +1,21 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Một dòng trong bảng so sánh thông số; values theo đúng thứ tự sản phẩm
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpecRowResponse {
+    private String key;
+    private String label;
+    private List<String> values; // null nếu sản phẩm không có thông số này
+}
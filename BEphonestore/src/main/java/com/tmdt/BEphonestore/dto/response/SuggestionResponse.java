@@ -0,0 +1,19 @@
+package com.tmdt.BEphonestore.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO gợi ý cho ô tìm kiếm (typeahead)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String type; // PRODUCT hoặc CATEGORY
+    private Long id;
+    private String text;
+}
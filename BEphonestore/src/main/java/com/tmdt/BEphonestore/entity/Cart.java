@@ -16,7 +16,7 @@ import java.util.List;
  * Cart Entity - Updated to match nullable database schema
  */
 @Entity
-@Table(name = "Cart")
+@Table(name = "Cart", indexes = @Index(name = "ix_cart_updated_at", columnList = "updatedAt, id"))
 @Getter
 @Setter
 @NoArgsConstructor
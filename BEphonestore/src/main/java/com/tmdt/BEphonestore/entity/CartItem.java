@@ -19,8 +19,10 @@ import java.time.LocalDateTime;
 @Builder
 public class CartItem {
 
+    // Sequence pooled như OrderItem: các dòng giỏ ghi lại khi flush được gom thành JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cartItemSeq")
+    @SequenceGenerator(name = "cartItemSeq", sequenceName = "cart_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
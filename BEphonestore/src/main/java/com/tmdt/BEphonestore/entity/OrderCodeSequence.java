@@ -0,0 +1,25 @@
+package com.tmdt.BEphonestore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * OrderCodeSequence Entity (Bộ đếm mã đơn hàng theo ngày).
+ * nextValue là số thứ tự đầu tiên chưa được cấp cho instance nào
+ */
+@Entity
+@Table(name = "OrderCodeSequence")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderCodeSequence {
+
+    @Id
+    @Column(length = 8)
+    private String codeDate; // yyyyMMdd
+
+    @Column(nullable = false)
+    private Long nextValue;
+}
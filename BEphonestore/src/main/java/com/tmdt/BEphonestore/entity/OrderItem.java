@@ -17,8 +17,10 @@ import java.math.BigDecimal;
 @Builder
 public class OrderItem {
 
+    // Sequence (pooled, 50 id mỗi lần lấy) thay IDENTITY để Hibernate gom INSERT thành JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderItemSeq")
+    @SequenceGenerator(name = "orderItemSeq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
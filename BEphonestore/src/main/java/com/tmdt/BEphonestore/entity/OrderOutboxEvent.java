@@ -0,0 +1,67 @@
+package com.tmdt.BEphonestore.entity;
+
+import com.tmdt.BEphonestore.enums.OrderEventType;
+import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.enums.OutboxState;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * OrderOutboxEvent Entity (Sự kiện đơn hàng chờ gửi cho các hệ thống bên ngoài).
+ * Ghi cùng transaction với thay đổi của đơn, được OrderOutboxDispatcher gửi sau khi commit
+ */
+@Entity
+@Table(name = "OrderOutboxEvent", indexes = {
+        @Index(name = "ix_order_outbox_due", columnList = "state, nextAttemptAt, id"),
+        @Index(name = "ix_order_outbox_order", columnList = "orderId, id"),
+        @Index(name = "ix_order_outbox_claim", columnList = "claimToken")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 30, nullable = false)
+    private OrderEventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderStatus orderStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private OrderStatus previousOrderStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private OutboxState state;
+
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+}
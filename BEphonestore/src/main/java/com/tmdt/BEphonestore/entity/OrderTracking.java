@@ -19,8 +19,10 @@ import java.time.LocalDateTime;
 @Builder
 public class OrderTracking {
 
+    // Sequence pooled như OrderItem để INSERT tracking đi chung batch với đơn
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orderTrackingSeq")
+    @SequenceGenerator(name = "orderTrackingSeq", sequenceName = "order_tracking_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
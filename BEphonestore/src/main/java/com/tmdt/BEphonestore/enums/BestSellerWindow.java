@@ -0,0 +1,33 @@
+package com.tmdt.BEphonestore.enums;
+
+import com.tmdt.BEphonestore.exception.BadRequestException;
+
+/**
+ * Khoảng thời gian tính sản phẩm bán chạy
+ */
+public enum BestSellerWindow {
+    LAST_7_DAYS("7d", 7),
+    LAST_30_DAYS("30d", 30),
+    ALL_TIME("all", 0);
+
+    private final String param;
+    private final int days; // 0 = toàn bộ
+
+    BestSellerWindow(String param, int days) {
+        this.param = param;
+        this.days = days;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public static BestSellerWindow fromParam(String value) {
+        for (BestSellerWindow window : values()) {
+            if (window.param.equalsIgnoreCase(value)) {
+                return window;
+            }
+        }
+        throw new BadRequestException("Invalid window: " + value + " (expected 7d, 30d or all)");
+    }
+}
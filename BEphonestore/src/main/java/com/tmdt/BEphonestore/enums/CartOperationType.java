@@ -0,0 +1,10 @@
+package com.tmdt.BEphonestore.enums;
+
+/**
+ * Thao tác trong PATCH /cart: ADD cộng thêm số lượng, SET đặt số lượng (0 = xóa), REMOVE xóa dòng
+ */
+public enum CartOperationType {
+    ADD,
+    SET,
+    REMOVE
+}
@@ -0,0 +1,43 @@
+package com.tmdt.BEphonestore.enums;
+
+import com.tmdt.BEphonestore.exception.BadRequestException;
+
+/**
+ * Định dạng file catalog khi xuất/nhập sản phẩm hàng loạt
+ */
+public enum ExportFormat {
+    NDJSON("ndjson", "application/x-ndjson"),
+    CSV("csv", "text/csv");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormat fromParam(String value) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Invalid format: " + value + " (expected ndjson or csv)");
+    }
+
+    /**
+     * Đoán định dạng theo đuôi file, mặc định NDJSON
+     */
+    public static ExportFormat fromFileName(String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(".csv") ? CSV : NDJSON;
+    }
+}
@@ -0,0 +1,10 @@
+package com.tmdt.BEphonestore.enums;
+
+/**
+ * Order Event Type Enum (sự kiện vòng đời đơn hàng ghi vào outbox)
+ */
+public enum OrderEventType {
+    ORDER_PLACED,     // Đặt hàng thành công
+    STATUS_CHANGED,   // Admin đổi trạng thái
+    ORDER_CANCELLED   // Khách hủy đơn
+}
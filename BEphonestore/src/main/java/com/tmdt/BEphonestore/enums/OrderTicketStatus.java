@@ -0,0 +1,11 @@
+package com.tmdt.BEphonestore.enums;
+
+/**
+ * Order Ticket Status Enum (trạng thái yêu cầu đặt hàng trong hàng đợi)
+ */
+public enum OrderTicketStatus {
+    QUEUED,       // Đang chờ trong hàng đợi
+    PROCESSING,   // Đang tạo đơn
+    COMPLETED,    // Đã tạo đơn
+    FAILED        // Không tạo được đơn (xem message)
+}
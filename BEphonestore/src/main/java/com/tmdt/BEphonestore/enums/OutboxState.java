@@ -0,0 +1,10 @@
+package com.tmdt.BEphonestore.enums;
+
+/**
+ * Outbox State Enum
+ */
+public enum OutboxState {
+    PENDING,     // Chờ gửi (hoặc chờ thử lại)
+    PROCESSED,   // Mọi handler đã xử lý xong
+    FAILED       // Hết số lần thử, cần xem lastError
+}
@@ -0,0 +1,16 @@
+package com.tmdt.BEphonestore.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Event phát ra sau mỗi khối giỏ bỏ quên đã bị dọn khỏi DB, để các bản giữ trong bộ nhớ
+ * không ghi đè lên giỏ đã xóa
+ */
+@Getter
+@AllArgsConstructor
+public class CartsSweptEvent {
+    private final List<Long> userIds;
+}
@@ -0,0 +1,28 @@
+package com.tmdt.BEphonestore.event;
+
+import com.tmdt.BEphonestore.entity.Category;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event phát ra khi một Category được tạo, cập nhật hoặc bị xóa.
+ * Được xử lý sau khi transaction commit.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Long categoryId;
+    private final Category category; // null khi DELETED
+    private final ChangeType type;
+
+    public static CategoryChangedEvent of(Category category, ChangeType type) {
+        return new CategoryChangedEvent(category.getId(), type == ChangeType.DELETED ? null : category, type);
+    }
+}
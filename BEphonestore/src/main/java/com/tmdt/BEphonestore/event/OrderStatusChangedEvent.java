@@ -0,0 +1,37 @@
+package com.tmdt.BEphonestore.event;
+
+import com.tmdt.BEphonestore.entity.Order;
+import com.tmdt.BEphonestore.entity.OrderItem;
+import com.tmdt.BEphonestore.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Event phát ra khi một Order đổi trạng thái, kèm danh sách dòng hàng (productId, quantity).
+ * Được xử lý sau khi transaction commit.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderStatusChangedEvent {
+
+    private final Long orderId;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+    private final List<Line> lines;
+
+    public static OrderStatusChangedEvent of(Order order, OrderStatus previousStatus, List<OrderItem> items) {
+        List<Line> lines = items.stream()
+                .map(item -> new Line(item.getProduct().getId(), item.getQuantity()))
+                .toList();
+        return new OrderStatusChangedEvent(order.getId(), previousStatus, order.getStatus(), lines);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private final Long productId;
+        private final int quantity;
+    }
+}
@@ -0,0 +1,30 @@
+package com.tmdt.BEphonestore.event;
+
+import com.tmdt.BEphonestore.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Event phát ra khi một Product được tạo, cập nhật, đổi tồn kho hoặc bị xóa.
+ * Được xử lý sau khi transaction commit để các index/cache trong bộ nhớ
+ * không nhìn thấy dữ liệu chưa commit.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        STOCK_CHANGED,
+        DELETED
+    }
+
+    private final Long productId;
+    private final Product product; // null khi DELETED
+    private final ChangeType type;
+
+    public static ProductChangedEvent of(Product product, ChangeType type) {
+        return new ProductChangedEvent(product.getId(), type == ChangeType.DELETED ? null : product, type);
+    }
+}
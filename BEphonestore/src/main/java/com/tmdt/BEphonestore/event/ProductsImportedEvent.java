@@ -0,0 +1,17 @@
+package com.tmdt.BEphonestore.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Event phát ra một lần sau khi nhập hàng loạt sản phẩm (thay cho một ProductChangedEvent
+ * mỗi dòng). Các index/cache nên dựng lại hoặc làm mới toàn bộ thay vì cập nhật từng sản phẩm.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsImportedEvent {
+    private final int createdCount;
+    private final List<Long> updatedIds;
+}
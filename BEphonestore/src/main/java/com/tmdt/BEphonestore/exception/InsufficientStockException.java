@@ -0,0 +1,17 @@
+package com.tmdt.BEphonestore.exception;
+
+import lombok.Getter;
+
+/**
+ * Không giữ được hàng: sản phẩm không đủ tồn kho hoặc không còn ACTIVE
+ */
+@Getter
+public class InsufficientStockException extends BadRequestException {
+
+    private final Long productId;
+
+    public InsufficientStockException(Long productId) {
+        super("Insufficient stock for product " + productId);
+        this.productId = productId;
+    }
+}
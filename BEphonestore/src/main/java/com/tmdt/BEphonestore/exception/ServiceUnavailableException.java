@@ -0,0 +1,11 @@
+package com.tmdt.BEphonestore.exception;
+
+/**
+ * Service Unavailable Exception (quá tải, client nên thử lại sau)
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,238 @@
+package com.tmdt.BEphonestore.feed;
+
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
+import com.tmdt.BEphonestore.enums.BestSellerWindow;
+import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.event.CategoryChangedEvent;
+import com.tmdt.BEphonestore.event.OrderStatusChangedEvent;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
+import com.tmdt.BEphonestore.event.ProductsImportedEvent;
+import com.tmdt.BEphonestore.repository.OrderItemRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bảng xếp hạng sản phẩm bán chạy (đơn COMPLETED) theo 7 ngày, 30 ngày và toàn thời gian.
+ *
+ * Số lượng bán được giữ trong bộ nhớ theo từng ngày. Khi một đơn chuyển sang COMPLETED
+ * chỉ cộng thêm các dòng của đơn đó rồi xếp hạng lại từ bộ nhớ, không chạy lại GROUP BY.
+ * Truy vấn tổng hợp trên DB chỉ chạy lúc khởi động và theo kỳ làm mới định kỳ
+ * (để trượt cửa sổ ngày và đồng bộ lại nếu có thay đổi ngoài ứng dụng).
+ */
+@Slf4j
+@Component
+public class BestSellerFeed {
+
+    public static final int MAX_SIZE = 20;
+    private static final int RANKED_SIZE = MAX_SIZE * 2; // dự phòng cho sản phẩm đã ngừng bán
+    private static final int TRACKED_DAYS = 30;
+
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+
+    // Số lượng bán, chỉ truy cập khi giữ lock của this
+    private Map<Long, Long> allTime = new HashMap<>();
+    private TreeMap<LocalDate, Map<Long, Long>> daily = new TreeMap<>();
+
+    private volatile Map<BestSellerWindow, List<Long>> rankings = new EnumMap<>(BestSellerWindow.class);
+
+    private final Object loadLock = new Object();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Map<BestSellerWindow, List<ProductSummaryResponse>> snapshot; // null = cần nạp lại
+
+    public BestSellerFeed(OrderItemRepository orderItemRepository, ProductRepository productRepository) {
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+    }
+
+    public List<ProductSummaryResponse> get(BestSellerWindow window, int limit) {
+        Map<BestSellerWindow, List<ProductSummaryResponse>> current = snapshot;
+        if (current == null) {
+            current = load();
+        }
+        List<ProductSummaryResponse> products = current.getOrDefault(window, List.of());
+        return products.subList(0, Math.min(limit, products.size()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            log.error("Could not load best sellers on startup: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Nạp lại số lượng bán từ DB
+     */
+    @Scheduled(fixedDelayString = "${app.feed.refresh-interval:PT15M}",
+            initialDelayString = "${app.feed.refresh-interval:PT15M}")
+    public void refresh() {
+        LocalDate firstDay = LocalDate.now().minusDays(TRACKED_DAYS - 1);
+
+        Map<Long, Long> freshAllTime = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumQuantityByProductAndStatus(OrderStatus.COMPLETED)) {
+            freshAllTime.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        TreeMap<LocalDate, Map<Long, Long>> freshDaily = new TreeMap<>();
+        for (Object[] row : orderItemRepository.sumDailyQuantityByProductAndStatus(OrderStatus.COMPLETED,
+                firstDay.atStartOfDay())) {
+            freshDaily.computeIfAbsent((LocalDate) row[1], day -> new HashMap<>())
+                    .merge((Long) row[0], ((Number) row[2]).longValue(), Long::sum);
+        }
+
+        synchronized (this) {
+            allTime = freshAllTime;
+            daily = freshDaily;
+            rerank();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStatus() != OrderStatus.COMPLETED) {
+            return;
+        }
+        synchronized (this) {
+            Map<Long, Long> today = daily.computeIfAbsent(LocalDate.now(), day -> new HashMap<>());
+            for (OrderStatusChangedEvent.Line line : event.getLines()) {
+                allTime.merge(line.getProductId(), (long) line.getQuantity(), Long::sum);
+                today.merge(line.getProductId(), (long) line.getQuantity(), Long::sum);
+            }
+            rerank();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Đổi tồn kho (mỗi lần checkout) không đổi thứ hạng: chỉ sửa dòng đó trong snapshot
+        if (event.getType() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            patchStock(event.getProductId(), event.getProduct().getStock());
+        } else {
+            invalidate();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidate();
+    }
+
+    private void rerank() {
+        LocalDate today = LocalDate.now();
+        daily.headMap(today.minusDays(TRACKED_DAYS - 1)).clear();
+
+        Map<BestSellerWindow, List<Long>> fresh = new EnumMap<>(BestSellerWindow.class);
+        for (BestSellerWindow window : BestSellerWindow.values()) {
+            Map<Long, Long> totals;
+            if (window.getDays() == 0) {
+                totals = allTime;
+            } else {
+                totals = new HashMap<>();
+                for (Map<Long, Long> day : daily.tailMap(today.minusDays(window.getDays() - 1)).values()) {
+                    day.forEach((productId, quantity) -> totals.merge(productId, quantity, Long::sum));
+                }
+            }
+            fresh.put(window, top(totals));
+        }
+        rankings = fresh;
+        invalidate();
+    }
+
+    private static List<Long> top(Map<Long, Long> totals) {
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .limit(RANKED_SIZE)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void patchStock(Long productId, Integer stock) {
+        synchronized (loadLock) {
+            Map<BestSellerWindow, List<ProductSummaryResponse>> current = snapshot;
+            if (current == null) {
+                return;
+            }
+            long patchedGeneration = generation.get();
+            Map<BestSellerWindow, List<ProductSummaryResponse>> patched = new EnumMap<>(BestSellerWindow.class);
+            current.forEach((window, products) ->
+                    patched.put(window, FeedSnapshots.withStock(products, productId, stock)));
+            if (!patched.equals(current) && generation.get() == patchedGeneration) {
+                snapshot = patched;
+            }
+        }
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    /**
+     * Nạp thông tin sản phẩm cho mọi cửa sổ trong một truy vấn
+     */
+    private Map<BestSellerWindow, List<ProductSummaryResponse>> load() {
+        synchronized (loadLock) {
+            Map<BestSellerWindow, List<ProductSummaryResponse>> current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            long loadedGeneration = generation.get();
+            Map<BestSellerWindow, List<Long>> ranked = rankings;
+
+            Set<Long> ids = new LinkedHashSet<>();
+            ranked.values().forEach(ids::addAll);
+            Map<Long, ProductSummaryResponse> products = ids.isEmpty()
+                    ? Map.of()
+                    : productRepository.findSummariesByIdIn(ids).stream()
+                            .filter(product -> product.getStatus() == ProductStatus.ACTIVE)
+                            .collect(Collectors.toMap(ProductSummaryResponse::getId, Function.identity()));
+
+            current = new EnumMap<>(BestSellerWindow.class);
+            for (Map.Entry<BestSellerWindow, List<Long>> entry : ranked.entrySet()) {
+                List<ProductSummaryResponse> list = new ArrayList<>(MAX_SIZE);
+                for (Long id : entry.getValue()) {
+                    ProductSummaryResponse product = products.get(id);
+                    if (product != null && list.size() < MAX_SIZE) {
+                        list.add(product);
+                    }
+                }
+                current.put(entry.getKey(), List.copyOf(list));
+            }
+
+            // Có thay đổi trong lúc đang nạp thì không giữ kết quả cũ
+            if (generation.get() == loadedGeneration) {
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.tmdt.BEphonestore.feed;
+
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tiện ích cập nhật snapshot của feed mà không phải nạp lại từ DB
+ */
+final class FeedSnapshots {
+
+    private FeedSnapshots() {
+    }
+
+    /**
+     * Bản sao của list với tồn kho mới cho sản phẩm productId (không sửa object cũ vì có thể đang được trả ra ngoài).
+     *
+     * @return chính list ban đầu nếu sản phẩm không có trong list
+     */
+    static List<ProductSummaryResponse> withStock(List<ProductSummaryResponse> products, Long productId,
+            Integer stock) {
+        for (int i = 0; i < products.size(); i++) {
+            ProductSummaryResponse product = products.get(i);
+            if (product.getId().equals(productId)) {
+                List<ProductSummaryResponse> patched = new ArrayList<>(products);
+                patched.set(i, product.toBuilder().stock(stock).build());
+                return List.copyOf(patched);
+            }
+        }
+        return products;
+    }
+}
@@ -0,0 +1,98 @@
+package com.tmdt.BEphonestore.feed;
+
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.event.CategoryChangedEvent;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
+import com.tmdt.BEphonestore.event.ProductsImportedEvent;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshot danh sách sản phẩm mới nhất. Chỉ nạp lại (một truy vấn) khi catalog
+ * đã thay đổi kể từ lần nạp trước hoặc tới kỳ làm mới định kỳ.
+ */
+@Component
+public class NewArrivalsFeed {
+
+    public static final int MAX_SIZE = 20;
+
+    private final ProductRepository productRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile List<ProductSummaryResponse> snapshot; // null = cần nạp lại
+
+    public NewArrivalsFeed(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public List<ProductSummaryResponse> get(int limit) {
+        List<ProductSummaryResponse> current = snapshot;
+        if (current == null) {
+            current = load();
+        }
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Đổi tồn kho (mỗi lần checkout) không đổi danh sách hay thứ tự: chỉ sửa dòng đó trong snapshot
+        if (event.getType() == ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            patchStock(event.getProductId(), event.getProduct().getStock());
+        } else {
+            invalidate();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidate();
+    }
+
+    @Scheduled(fixedDelayString = "${app.feed.refresh-interval:PT15M}",
+            initialDelayString = "${app.feed.refresh-interval:PT15M}")
+    public void refresh() {
+        invalidate();
+    }
+
+    private synchronized void patchStock(Long productId, Integer stock) {
+        List<ProductSummaryResponse> current = snapshot;
+        if (current != null) {
+            long patchedGeneration = generation.get();
+            List<ProductSummaryResponse> patched = FeedSnapshots.withStock(current, productId, stock);
+            if (patched != current && generation.get() == patchedGeneration) {
+                snapshot = patched;
+            }
+        }
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private synchronized List<ProductSummaryResponse> load() {
+        List<ProductSummaryResponse> current = snapshot;
+        if (current == null) {
+            long loadedGeneration = generation.get();
+            current = List.copyOf(productRepository.findLatestSummaries(ProductStatus.ACTIVE,
+                    PageRequest.of(0, MAX_SIZE)));
+            // Có thay đổi trong lúc đang nạp thì không giữ kết quả cũ
+            if (generation.get() == loadedGeneration) {
+                snapshot = current;
+            }
+        }
+        return current;
+    }
+}
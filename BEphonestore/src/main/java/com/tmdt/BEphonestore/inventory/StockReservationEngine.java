@@ -0,0 +1,174 @@
+package com.tmdt.BEphonestore.inventory;
+
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
+import com.tmdt.BEphonestore.event.ProductsImportedEvent;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import com.tmdt.BEphonestore.exception.InsufficientStockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Giữ hàng khi đặt hàng mà không bán quá tồn kho.
+ *
+ * Tồn kho chỉ bị trừ bằng UPDATE có điều kiện (stock >= quantity), nên kể cả khi chạy nhiều instance
+ * cũng không thể âm. Mọi dòng của một đơn đi trong một JDBC batch (một round trip), theo thứ tự id sản phẩm
+ * tăng dần để hai đơn chéo nhau không deadlock; một dòng không cập nhật được thì ném
+ * InsufficientStockException và transaction của caller rollback toàn bộ các dòng đã trừ.
+ *
+ * Trong một instance, mỗi sản phẩm được khóa theo một trong STRIPES lock, giữ đến khi transaction kết thúc:
+ * người mua cùng một SKU xếp hàng trong JVM thay vì cùng chờ row lock trong DB. Sau khi một SKU hết hàng,
+ * các yêu cầu tiếp theo bị từ chối ngay (không khóa, không truy vấn) trong app.inventory.sold-out-ttl.
+ */
+@Component
+public class StockReservationEngine {
+
+    private static final int STRIPES = 64;
+
+    private static final String DECREMENT_SQL = "UPDATE product SET stock = stock - ?, updated_at = ? " +
+            "WHERE id = ? AND stock >= ? AND status = 'ACTIVE'";
+    private static final String INCREMENT_SQL = "UPDATE product SET stock = stock + ?, updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long lockTimeoutMillis;
+    private final long soldOutTtlMillis;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    // productId -> [số lượng vừa thất bại, thời điểm ghi nhận]
+    private final Map<Long, long[]> soldOut = new ConcurrentHashMap<>();
+
+    public StockReservationEngine(JdbcTemplate jdbcTemplate,
+            @Value("${app.inventory.lock-timeout:PT5S}") Duration lockTimeout,
+            @Value("${app.inventory.sold-out-ttl:PT5S}") Duration soldOutTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lockTimeoutMillis = lockTimeout.toMillis();
+        this.soldOutTtlMillis = soldOutTtl.toMillis();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    private static int stripe(Long productId) {
+        return Long.hashCode(productId) & (STRIPES - 1);
+    }
+
+    /**
+     * Trừ tồn kho cho mọi dòng (productId -> số lượng) trong transaction hiện tại
+     *
+     * @throws InsufficientStockException nếu một sản phẩm không đủ hàng hoặc không còn bán
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> ordered = new TreeMap<>(quantities);
+        long now = System.currentTimeMillis();
+        ordered.forEach((productId, quantity) -> {
+            long[] hint = soldOut.get(productId);
+            if (hint != null && now - hint[1] < soldOutTtlMillis && quantity >= hint[0]) {
+                throw new InsufficientStockException(productId);
+            }
+        });
+
+        lockUntilCompletion(ordered);
+
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(ordered.entrySet());
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setTimestamp(2, updatedAt);
+            ps.setLong(3, line.getKey());
+            ps.setInt(4, line.getValue());
+        });
+        for (int i = 0; i < lines.size(); i++) {
+            if (counts[0][i] == 0) {
+                Map.Entry<Long, Integer> line = lines.get(i);
+                soldOut.put(line.getKey(), new long[] { line.getValue(), System.currentTimeMillis() });
+                throw new InsufficientStockException(line.getKey());
+            }
+        }
+    }
+
+    /**
+     * Trả lại tồn kho (vd. hủy đơn) trong transaction hiện tại
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Map<Long, Integer> quantities) {
+        SortedMap<Long, Integer> ordered = new TreeMap<>(quantities);
+        lockUntilCompletion(ordered);
+
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, ordered.entrySet(), ordered.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setTimestamp(2, updatedAt);
+            ps.setLong(3, line.getKey());
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                soldOut.keySet().removeAll(ordered.keySet());
+            }
+        });
+    }
+
+    /**
+     * Khóa các stripe theo thứ tự tăng dần, nhả khi transaction commit/rollback
+     */
+    private void lockUntilCompletion(SortedMap<Long, Integer> ordered) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        ordered.keySet().forEach(productId -> stripes.add(stripe(productId)));
+
+        List<ReentrantLock> acquired = new ArrayList<>(stripes.size());
+        try {
+            for (int index : stripes) {
+                if (!locks[index].tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new BadRequestException("Product is busy, please try again");
+                }
+                acquired.add(locks[index]);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired.forEach(ReentrantLock::unlock);
+            throw new BadRequestException("Product is busy, please try again");
+        } catch (RuntimeException ex) {
+            acquired.forEach(ReentrantLock::unlock);
+            throw ex;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                acquired.forEach(ReentrantLock::unlock);
+            }
+        });
+    }
+
+    /**
+     * Tồn kho có thể đã tăng (admin sửa, nhập hàng loạt): bỏ đánh dấu hết hàng
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        soldOut.remove(event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        soldOut.clear();
+    }
+}
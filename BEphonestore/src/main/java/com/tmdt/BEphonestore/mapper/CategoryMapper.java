@@ -0,0 +1,15 @@
+package com.tmdt.BEphonestore.mapper;
+
+import com.tmdt.BEphonestore.dto.response.CategoryResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Mapper Category -> CategoryResponse; số sản phẩm do service truyền vào
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CategoryMapper {
+
+    CategoryResponse toResponse(Category category, int productCount);
+}
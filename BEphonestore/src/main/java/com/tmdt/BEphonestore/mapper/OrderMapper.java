@@ -0,0 +1,47 @@
+package com.tmdt.BEphonestore.mapper;
+
+import com.tmdt.BEphonestore.dto.response.OrderDetailResponse;
+import com.tmdt.BEphonestore.dto.response.OrderItemResponse;
+import com.tmdt.BEphonestore.dto.response.OrderResponse;
+import com.tmdt.BEphonestore.dto.response.OrderTrackingResponse;
+import com.tmdt.BEphonestore.entity.Order;
+import com.tmdt.BEphonestore.entity.OrderItem;
+import com.tmdt.BEphonestore.entity.OrderTracking;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * Mapper cho Order và các bản ghi con (OrderItem, OrderTracking)
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface OrderMapper {
+
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "username", source = "user.username")
+    OrderResponse toResponse(Order order);
+
+    /**
+     * Chi tiết đơn hàng; items và trackings do service nạp riêng rồi truyền vào (dùng lại list, không copy)
+     */
+    @Mapping(target = "id", source = "order.id")
+    @Mapping(target = "status", source = "order.status")
+    @Mapping(target = "createdAt", source = "order.createdAt")
+    @Mapping(target = "updatedAt", source = "order.updatedAt")
+    @Mapping(target = "userId", source = "order.user.id")
+    @Mapping(target = "username", source = "order.user.username")
+    @Mapping(target = "userEmail", source = "order.user.email")
+    @Mapping(target = "userPhone", source = "order.user.phone")
+    @Mapping(target = "items", expression = "java(items)")
+    @Mapping(target = "trackings", expression = "java(trackings)")
+    OrderDetailResponse toDetailResponse(Order order, List<OrderItemResponse> items,
+            List<OrderTrackingResponse> trackings);
+
+    @Mapping(target = "productId", source = "product.id")
+    OrderItemResponse toItemResponse(OrderItem item);
+
+    @Mapping(target = "orderId", source = "order.id")
+    OrderTrackingResponse toTrackingResponse(OrderTracking tracking);
+}
@@ -0,0 +1,18 @@
+package com.tmdt.BEphonestore.mapper;
+
+import com.tmdt.BEphonestore.dto.response.ProductResponse;
+import com.tmdt.BEphonestore.entity.Product;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Mapper Product -> ProductResponse, code được sinh lúc biên dịch (không dùng reflection)
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ProductMapper {
+
+    @Mapping(target = "categoryId", source = "category.id")
+    @Mapping(target = "categoryName", source = "category.name")
+    ProductResponse toResponse(Product product);
+}
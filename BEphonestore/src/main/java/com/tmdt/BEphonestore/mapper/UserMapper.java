@@ -0,0 +1,15 @@
+package com.tmdt.BEphonestore.mapper;
+
+import com.tmdt.BEphonestore.dto.response.UserResponse;
+import com.tmdt.BEphonestore.entity.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Mapper User -> UserResponse (không bao giờ trả password ra ngoài)
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface UserMapper {
+
+    UserResponse toResponse(User user);
+}
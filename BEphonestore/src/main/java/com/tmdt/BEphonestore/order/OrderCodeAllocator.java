@@ -0,0 +1,88 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.repository.OrderCodeSequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Cấp mã đơn hàng ORD + yyyyMMdd + số thứ tự trong ngày (ít nhất 5 chữ số), không COUNT bảng Orders.
+ *
+ * Mỗi instance giữ một khối app.order.code-block-size số liên tiếp lấy từ bảng OrderCodeSequence
+ * (một dòng mỗi ngày) bằng một UPDATE cộng dồn trong transaction riêng, nên nhiều instance không bao giờ
+ * nhận trùng số. Trong một instance số tăng dần; giữa các instance và sau khi khởi động lại có thể có
+ * khoảng trống (phần còn lại của khối bị bỏ). Sang ngày mới bộ đếm bắt đầu lại từ 1.
+ *
+ * Phải gọi trước khi mở transaction đặt hàng (và trước khi request giữ connection nào): khi hết khối,
+ * việc lấy khối mới cần một connection riêng trong lúc giữ lock, nếu người gọi đang giữ connection
+ * thì khi pool cạn mọi checkout sẽ cùng chờ nhau tới hết connection-timeout.
+ */
+@Component
+public class OrderCodeAllocator {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final OrderCodeSequenceRepository sequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long blockSize;
+
+    // Khối hiện tại: [next, limit) của ngày codeDate; chỉ truy cập khi giữ lock của this
+    private String codeDate;
+    private long next;
+    private long limit;
+
+    public OrderCodeAllocator(OrderCodeSequenceRepository sequenceRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.order.code-block-size:100}") long blockSize) {
+        this.sequenceRepository = sequenceRepository;
+        // Không dùng chung transaction đặt hàng: khối đã lấy không bị trả lại khi đơn rollback
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    public String nextCode() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Order codes must be allocated before the order transaction opens");
+        }
+        return nextCode(LocalDate.now());
+    }
+
+    synchronized String nextCode(LocalDate date) {
+        String day = date.format(DATE_FORMAT);
+        if (!day.equals(codeDate) || next == limit) {
+            long end = reserveBlock(day);
+            codeDate = day;
+            next = end - blockSize;
+            limit = end;
+        }
+        return String.format("ORD%s%05d", day, next++);
+    }
+
+    /**
+     * @return số đầu tiên sau khối vừa lấy
+     */
+    private long reserveBlock(String day) {
+        while (true) {
+            Long end = transactionTemplate.execute(status -> sequenceRepository.advance(day, blockSize) == 0
+                    ? null
+                    : sequenceRepository.findNextValue(day));
+            if (end != null) {
+                return end;
+            }
+            try {
+                // Dòng đầu tiên của ngày; instance khác có thể chèn cùng lúc, khi đó thử cộng dồn lại
+                transactionTemplate.executeWithoutResult(status -> sequenceRepository.insertDay(day));
+            } catch (DataIntegrityViolationException ex) {
+                // Dòng đã tồn tại
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.entity.Order;
+import com.tmdt.BEphonestore.entity.OrderOutboxEvent;
+import com.tmdt.BEphonestore.service.EmailService;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gửi mail xác nhận đơn và cập nhật trạng thái cho khách
+ */
+@Component
+public class OrderEmailHandler implements OrderEventHandler {
+
+    private final EmailService emailService;
+
+    public OrderEmailHandler(EmailService emailService) {
+        this.emailService = emailService;
+    }
+
+    @Override
+    public void handle(OrderOutboxEvent event, Order order) {
+        String to = order.getUser().getEmail();
+        switch (event.getEventType()) {
+            case ORDER_PLACED -> emailService.sendOrderConfirmationEmail(to, order);
+            case STATUS_CHANGED, ORDER_CANCELLED -> emailService.sendOrderStatusUpdateEmail(to, order);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.entity.Order;
+import com.tmdt.BEphonestore.entity.OrderOutboxEvent;
+
+/**
+ * Xử lý sự kiện đơn hàng từ outbox (gửi mail, đồng bộ hệ thống ngoài...).
+ * Chạy ngoài transaction; order đã nạp sẵn user, các quan hệ khác handler tự truy vấn.
+ *
+ * Được gọi ít nhất một lần: ném exception thì sự kiện được thử lại cho mọi handler,
+ * nên handler phải chịu được việc nhận trùng
+ */
+public interface OrderEventHandler {
+
+    void handle(OrderOutboxEvent event, Order order);
+}
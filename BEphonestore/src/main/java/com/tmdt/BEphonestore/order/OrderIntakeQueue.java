@@ -0,0 +1,329 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.cart.CartStore;
+import com.tmdt.BEphonestore.dto.request.OrderRequest;
+import com.tmdt.BEphonestore.dto.response.OrderDetailResponse;
+import com.tmdt.BEphonestore.dto.response.OrderIntakeStatsResponse;
+import com.tmdt.BEphonestore.dto.response.OrderTicketResponse;
+import com.tmdt.BEphonestore.entity.User;
+import com.tmdt.BEphonestore.enums.OrderTicketStatus;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import com.tmdt.BEphonestore.exception.ResourceNotFoundException;
+import com.tmdt.BEphonestore.exception.ServiceUnavailableException;
+import com.tmdt.BEphonestore.repository.UserRepository;
+import com.tmdt.BEphonestore.service.OrderService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nhận đơn bất đồng bộ cho lúc cao điểm (app.order.intake.enabled=true).
+ *
+ * POST /orders/async chỉ kiểm tra giỏ rồi xếp yêu cầu vào hàng đợi có giới hạn (đầy thì trả 503),
+ * client nhận phiếu và hỏi lại GET /orders/tickets/{id}. app.order.intake.workers luồng lấy tối đa
+ * app.order.intake.batch-size phiếu mỗi lần và tạo các đơn trong một transaction (OrderService.placeOrders:
+ * tồn kho của cả lô được khóa và trừ một lần theo thứ tự id sản phẩm, như một đơn lớn); nếu một đơn lỗi thì
+ * cả lô rollback và từng đơn được tạo lại trong transaction riêng để chỉ đơn lỗi bị FAILED.
+ *
+ * Mỗi user chỉ có một phiếu đang chờ. Phiếu nằm trong bộ nhớ: khi tắt ứng dụng các phiếu còn trong
+ * hàng đợi vẫn được xử lý hết, nhưng nếu tiến trình chết đột ngột thì phiếu chưa xử lý bị mất (giỏ còn nguyên).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.order.intake.enabled", havingValue = "true")
+public class OrderIntakeQueue {
+
+    private final OrderService orderService;
+    private final OrderCodeAllocator orderCodeAllocator;
+    private final CartStore cartStore;
+    private final UserRepository userRepository;
+    private final BlockingQueue<Ticket> queue;
+    private final int capacity;
+    private final int workerCount;
+    private final int batchSize;
+    private final long ticketTtlMillis;
+    private final ExecutorService workers;
+
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    // userId -> phiếu đang QUEUED/PROCESSING
+    private final Map<Long, String> activeByUser = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedTickets = new AtomicLong();
+    private final AtomicLong batchFallbacks = new AtomicLong();
+    private final AtomicInteger lastBatchSize = new AtomicInteger();
+
+    public OrderIntakeQueue(OrderService orderService,
+            OrderCodeAllocator orderCodeAllocator,
+            CartStore cartStore,
+            UserRepository userRepository,
+            @Value("${app.order.intake.capacity:10000}") int capacity,
+            @Value("${app.order.intake.workers:1}") int workerCount,
+            @Value("${app.order.intake.batch-size:20}") int batchSize,
+            @Value("${app.order.intake.ticket-ttl:PT30M}") Duration ticketTtl) {
+        this.orderService = orderService;
+        this.orderCodeAllocator = orderCodeAllocator;
+        this.cartStore = cartStore;
+        this.userRepository = userRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.ticketTtlMillis = ticketTtl.toMillis();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drain);
+        }
+    }
+
+    /**
+     * Ngừng nhận phiếu mới, xử lý nốt các phiếu đang chờ
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("{} queued orders were not processed on shutdown", queue.size());
+        }
+    }
+
+    private Long getCurrentUserId() {
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        return userRepository.findByUsername(userDetails.getUsername())
+                .map(User::getId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
+    }
+
+    public OrderTicketResponse submit(OrderRequest request) {
+        if (!running) {
+            throw new ServiceUnavailableException("Order queue is shutting down, please try again later");
+        }
+        Long userId = getCurrentUserId();
+        if (cartStore.load(userId).getLines().isEmpty()) {
+            throw new BadRequestException("Cart is empty");
+        }
+
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), userId, request);
+        if (activeByUser.putIfAbsent(userId, ticket.id) != null) {
+            throw new BadRequestException("An order from your cart is already being processed");
+        }
+        tickets.put(ticket.id, ticket);
+        if (!queue.offer(ticket)) {
+            tickets.remove(ticket.id);
+            activeByUser.remove(userId);
+            rejected.incrementAndGet();
+            throw new ServiceUnavailableException("Too many orders right now, please try again later");
+        }
+        accepted.incrementAndGet();
+        return ticket.toResponse();
+    }
+
+    /**
+     * Trạng thái phiếu; waitSeconds > 0 thì chờ đến khi phiếu xong hoặc hết thời gian (long-poll)
+     */
+    public CompletableFuture<OrderTicketResponse> getTicket(String ticketId, int waitSeconds) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.userId.equals(getCurrentUserId())) {
+            throw new ResourceNotFoundException("OrderTicket", "id", ticketId);
+        }
+        if (waitSeconds <= 0 || ticket.done.isDone()) {
+            return CompletableFuture.completedFuture(ticket.toResponse());
+        }
+        return ticket.done.copy()
+                .completeOnTimeout(null, waitSeconds, TimeUnit.SECONDS)
+                .thenApply(ignored -> ticket.toResponse());
+    }
+
+    private void drain() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Order intake worker error: {}", ex.getMessage(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Ticket> batch) {
+        long now = System.currentTimeMillis();
+        for (Ticket ticket : batch) {
+            ticket.status = OrderTicketStatus.PROCESSING;
+            long waited = now - ticket.enqueuedAt;
+            totalWaitMillis.addAndGet(waited);
+            maxWaitMillis.accumulateAndGet(waited, Math::max);
+        }
+        batches.incrementAndGet();
+        batchedTickets.addAndGet(batch.size());
+        lastBatchSize.set(batch.size());
+
+        // Mã đơn lấy trước khi mở transaction của lô; lần thử lại từng đơn dùng lại mã cũ
+        List<String> orderCodes = batch.stream().map(ticket -> orderCodeAllocator.nextCode()).toList();
+        List<OrderPlacement> placements = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Ticket ticket = batch.get(i);
+            placements.add(new OrderPlacement(ticket.userId, ticket.request, orderCodes.get(i)));
+        }
+        List<OrderDetailResponse> orders;
+        try {
+            orders = orderService.placeOrders(placements);
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), ex);
+                return;
+            }
+            // Không biết đơn nào lỗi: tạo lại từng đơn trong transaction riêng
+            batchFallbacks.incrementAndGet();
+            for (int i = 0; i < batch.size(); i++) {
+                Ticket ticket = batch.get(i);
+                try {
+                    complete(ticket, orderService.placeOrder(ticket.userId, ticket.request, orderCodes.get(i)));
+                } catch (RuntimeException single) {
+                    fail(ticket, single);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), orders.get(i));
+        }
+    }
+
+    private void complete(Ticket ticket, OrderDetailResponse order) {
+        ticket.orderId = order.getId();
+        ticket.orderCode = order.getOrderCode();
+        finish(ticket, OrderTicketStatus.COMPLETED);
+        completed.incrementAndGet();
+    }
+
+    private void fail(Ticket ticket, RuntimeException ex) {
+        boolean expected = ex instanceof BadRequestException || ex instanceof ResourceNotFoundException;
+        ticket.message = expected ? ex.getMessage() : "Could not place order, please try again";
+        if (!expected) {
+            log.error("Could not place queued order {}: {}", ticket.id, ex.getMessage(), ex);
+        }
+        finish(ticket, OrderTicketStatus.FAILED);
+        failed.incrementAndGet();
+    }
+
+    private void finish(Ticket ticket, OrderTicketStatus status) {
+        ticket.completedAt = LocalDateTime.now();
+        ticket.finishedAt = System.currentTimeMillis();
+        ticket.status = status;
+        activeByUser.remove(ticket.userId, ticket.id);
+        ticket.done.complete(null);
+    }
+
+    /**
+     * Bỏ các phiếu đã xong quá app.order.intake.ticket-ttl
+     */
+    @Scheduled(fixedDelayString = "PT1M")
+    public void evictFinished() {
+        long cutoff = System.currentTimeMillis() - ticketTtlMillis;
+        tickets.values().removeIf(ticket -> ticket.done.isDone() && ticket.finishedAt < cutoff);
+    }
+
+    public OrderIntakeStatsResponse stats() {
+        long batchCount = batches.get();
+        long batched = batchedTickets.get();
+        return OrderIntakeStatsResponse.builder()
+                .queueDepth(queue.size())
+                .capacity(capacity)
+                .workers(workerCount)
+                .accepted(accepted.get())
+                .rejected(rejected.get())
+                .completed(completed.get())
+                .failed(failed.get())
+                .averageWaitMillis(batched == 0 ? 0 : (double) totalWaitMillis.get() / batched)
+                .maxWaitMillis(maxWaitMillis.get())
+                .batches(batchCount)
+                .averageBatchSize(batchCount == 0 ? 0 : (double) batched / batchCount)
+                .lastBatchSize(lastBatchSize.get())
+                .batchFallbacks(batchFallbacks.get())
+                .build();
+    }
+
+    private static class Ticket {
+        final String id;
+        final Long userId;
+        final OrderRequest request;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final long enqueuedAt = System.currentTimeMillis();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        volatile OrderTicketStatus status = OrderTicketStatus.QUEUED;
+        volatile Long orderId;
+        volatile String orderCode;
+        volatile String message;
+        volatile LocalDateTime completedAt;
+        volatile long finishedAt;
+
+        Ticket(String id, Long userId, OrderRequest request) {
+            this.id = id;
+            this.userId = userId;
+            this.request = request;
+        }
+
+        OrderTicketResponse toResponse() {
+            return OrderTicketResponse.builder()
+                    .ticketId(id)
+                    .status(status)
+                    .orderId(orderId)
+                    .orderCode(orderCode)
+                    .message(message)
+                    .createdAt(createdAt)
+                    .completedAt(completedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.entity.Order;
+import com.tmdt.BEphonestore.entity.OrderOutboxEvent;
+import com.tmdt.BEphonestore.enums.OrderEventType;
+import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.enums.OutboxState;
+import com.tmdt.BEphonestore.repository.OrderOutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ghi sự kiện đơn hàng vào outbox trong cùng transaction với thay đổi của đơn:
+ * sự kiện tồn tại khi và chỉ khi thay đổi được commit
+ */
+@Component
+public class OrderOutbox {
+
+    private final OrderOutboxEventRepository outboxEventRepository;
+
+    public OrderOutbox(OrderOutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Order order, OrderEventType eventType, OrderStatus previousStatus) {
+        outboxEventRepository.save(OrderOutboxEvent.builder()
+                .orderId(order.getId())
+                .eventType(eventType)
+                .orderStatus(order.getStatus())
+                .previousOrderStatus(previousStatus)
+                .state(OutboxState.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+}
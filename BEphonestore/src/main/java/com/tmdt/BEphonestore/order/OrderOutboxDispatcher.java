@@ -0,0 +1,158 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.entity.Order;
+import com.tmdt.BEphonestore.entity.OrderOutboxEvent;
+import com.tmdt.BEphonestore.enums.OutboxState;
+import com.tmdt.BEphonestore.repository.OrderOutboxEventRepository;
+import com.tmdt.BEphonestore.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Gửi các sự kiện trong outbox cho mọi OrderEventHandler, ngoài transaction đặt hàng.
+ *
+ * Mỗi vòng lấy tối đa app.outbox.batch-size sự kiện đến hạn (chỉ sự kiện chờ sớm nhất của mỗi đơn,
+ * nên các sự kiện của một đơn luôn được gửi theo thứ tự), nhận lô bằng một UPDATE có claim token
+ * để nhiều instance không gửi trùng, nạp các đơn (kèm user) trong một truy vấn rồi gọi handler từng sự kiện.
+ * Sự kiện lỗi được thử lại với thời gian chờ tăng gấp đôi từ app.outbox.retry-backoff, sau
+ * app.outbox.max-attempts lần thì chuyển FAILED (không chặn các sự kiện sau của đơn đó nữa).
+ * Instance chết giữa chừng: lô đã nhận được lấy lại sau app.outbox.lease.
+ */
+@Slf4j
+@Component
+public class OrderOutboxDispatcher {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final OrderOutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final List<OrderEventHandler> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration lease;
+    private final Duration retention;
+
+    public OrderOutboxDispatcher(OrderOutboxEventRepository outboxEventRepository,
+            OrderRepository orderRepository,
+            List<OrderEventHandler> handlers,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.outbox.batch-size:100}") int batchSize,
+            @Value("${app.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.outbox.retry-backoff:PT30S}") Duration retryBackoff,
+            @Value("${app.outbox.lease:PT5M}") Duration lease,
+            @Value("${app.outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderRepository = orderRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.lease = lease;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT1S}",
+            initialDelayString = "${app.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        try {
+            while (dispatchBatch() == batchSize) {
+                // Còn tồn: lấy lô tiếp ngay
+            }
+        } catch (RuntimeException ex) {
+            log.error("Order outbox dispatch failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * @return số sự kiện đến hạn đã tìm thấy
+     */
+    int dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = outboxEventRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String token = UUID.randomUUID().toString();
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.claim(ids, token, now.plus(lease), now));
+        List<OrderOutboxEvent> events = outboxEventRepository.findByClaimTokenOrderByIdAsc(token);
+        if (events.isEmpty()) {
+            return ids.size();
+        }
+
+        Map<Long, Order> orders = orderRepository.findByIdIn(
+                events.stream().map(OrderOutboxEvent::getOrderId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        List<Long> processed = new ArrayList<>(events.size());
+        for (OrderOutboxEvent event : events) {
+            Order order = orders.get(event.getOrderId());
+            if (order == null) {
+                // Đơn đã bị xóa: không còn gì để gửi
+                processed.add(event.getId());
+                continue;
+            }
+            try {
+                // Ngoài transaction: không giữ connection trong lúc gọi SMTP/hệ thống ngoài
+                for (OrderEventHandler handler : handlers) {
+                    handler.handle(event, order);
+                }
+                processed.add(event.getId());
+            } catch (RuntimeException ex) {
+                retryLater(event, ex);
+            }
+        }
+        if (!processed.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(processed, LocalDateTime.now()));
+        }
+        return ids.size();
+    }
+
+    private void retryLater(OrderOutboxEvent event, RuntimeException ex) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setClaimToken(null);
+        String message = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+        event.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+        if (event.getAttempts() >= maxAttempts) {
+            event.setState(OutboxState.FAILED);
+            log.error("Giving up order event {} ({} for order {}) after {} attempts: {}", event.getId(),
+                    event.getEventType(), event.getOrderId(), event.getAttempts(), message);
+        } else {
+            Duration backoff = retryBackoff.multipliedBy(1L << Math.min(event.getAttempts() - 1, 20));
+            event.setNextAttemptAt(LocalDateTime.now().plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+            log.warn("Order event {} ({} for order {}) failed, attempt {}: {}", event.getId(),
+                    event.getEventType(), event.getOrderId(), event.getAttempts(), message);
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.save(event));
+    }
+
+    /**
+     * Xóa sự kiện đã gửi quá app.outbox.retention
+     */
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT10M")
+    public void purgeProcessed() {
+        int deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted > 0) {
+            log.info("Purged {} processed order events", deleted);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.dto.request.OrderRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Một đơn cần tạo từ giỏ của userId; orderCode đã lấy từ OrderCodeAllocator
+ */
+@Getter
+@AllArgsConstructor
+public class OrderPlacement {
+    private final Long userId;
+    private final OrderRequest request;
+    private final String orderCode;
+}
@@ -0,0 +1,219 @@
+package com.tmdt.BEphonestore.recommend;
+
+import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.event.OrderStatusChangedEvent;
+import com.tmdt.BEphonestore.repository.OrderItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Khách hàng cũng mua": ma trận đồng xuất hiện item-item từ các đơn COMPLETED.
+ *
+ * Mỗi sản phẩm giữ một hàng thưa (IntIntCounter) đếm số đơn mua chung với từng sản phẩm khác.
+ * Độ tương đồng là cosine co(a,b) / sqrt(freq(a) * freq(b)); chỉ giữ top-K cho mỗi sản phẩm
+ * để phục vụ đọc từ bộ nhớ. Đơn mới hoàn thành được cộng dồn và chỉ tính lại top-K của các
+ * sản phẩm trong đơn; lần dựng lại định kỳ làm mới phần còn lại.
+ */
+@Slf4j
+@Component
+public class CoPurchaseIndex {
+
+    public static final int TOP_K = 20;
+    private static final int MAX_BASKET_SIZE = 50; // đơn sỉ quá lớn làm nhiễu kết quả
+    private static final int SCAN_CHUNK_SIZE = 5000;
+
+    private final OrderItemRepository orderItemRepository;
+
+    // Chỉ truy cập khi giữ lock của this
+    private Matrix matrix = new Matrix();
+
+    private volatile Map<Integer, int[]> related = new ConcurrentHashMap<>();
+
+    public CoPurchaseIndex(OrderItemRepository orderItemRepository) {
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    /**
+     * Id sản phẩm liên quan, theo độ tương đồng giảm dần
+     */
+    public List<Long> related(Long productId, int limit) {
+        int[] ids = related.get(Math.toIntExact(productId));
+        if (ids == null) {
+            return List.of();
+        }
+        List<Long> result = new ArrayList<>(Math.min(limit, ids.length));
+        for (int i = 0; i < ids.length && result.size() < limit; i++) {
+            result.add((long) ids[i]);
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (Exception ex) {
+            log.error("Could not build co-purchase index on startup: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Quét toàn bộ dòng hàng của đơn COMPLETED theo thứ tự đơn, từng khối keyset
+     */
+    @Scheduled(fixedDelayString = "${app.recommend.refresh-interval:PT6H}",
+            initialDelayString = "${app.recommend.refresh-interval:PT6H}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Matrix fresh = new Matrix();
+        BasketBuilder basket = new BasketBuilder(fresh);
+
+        long lastOrderId = 0L;
+        long lastItemId = 0L;
+        List<Object[]> chunk;
+        do {
+            chunk = orderItemRepository.findLinesByStatusAfter(OrderStatus.COMPLETED, lastOrderId, lastItemId,
+                    PageRequest.of(0, SCAN_CHUNK_SIZE));
+            for (Object[] row : chunk) {
+                lastOrderId = (Long) row[0];
+                lastItemId = (Long) row[1];
+                basket.accept(lastOrderId, (Long) row[2]);
+            }
+        } while (chunk.size() == SCAN_CHUNK_SIZE);
+        basket.flush();
+
+        Map<Integer, int[]> freshRelated = fresh.topKForAll();
+        synchronized (this) {
+            matrix = fresh;
+            related = freshRelated;
+        }
+        log.info("Built co-purchase index from {} orders ({} products) in {} ms",
+                fresh.orders, freshRelated.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.getStatus() != OrderStatus.COMPLETED) {
+            return;
+        }
+        int[] productIds = event.getLines().stream()
+                .mapToInt(line -> Math.toIntExact(line.getProductId()))
+                .distinct()
+                .toArray();
+        synchronized (this) {
+            if (matrix.addBasket(productIds)) {
+                for (int productId : productIds) {
+                    related.put(productId, matrix.topK(productId));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gom các dòng liên tiếp cùng một đơn thành giỏ hàng
+     */
+    private static class BasketBuilder {
+        private final Matrix matrix;
+        private long orderId = -1;
+        private final List<Integer> productIds = new ArrayList<>();
+
+        BasketBuilder(Matrix matrix) {
+            this.matrix = matrix;
+        }
+
+        void accept(long orderId, long productId) {
+            if (orderId != this.orderId) {
+                flush();
+                this.orderId = orderId;
+            }
+            productIds.add(Math.toIntExact(productId));
+        }
+
+        void flush() {
+            if (!productIds.isEmpty()) {
+                matrix.addBasket(productIds.stream().mapToInt(Integer::intValue).distinct().toArray());
+                productIds.clear();
+            }
+        }
+    }
+
+    /**
+     * Ma trận thưa: mỗi sản phẩm một hàng đếm mua chung, cùng số đơn chứa sản phẩm
+     */
+    static class Matrix {
+        final Map<Integer, IntIntCounter> rows = new HashMap<>();
+        final IntIntCounter frequency = new IntIntCounter(1024);
+        long orders;
+
+        /**
+         * @return false nếu giỏ bị bỏ qua (ít hơn 2 hoặc quá nhiều sản phẩm)
+         */
+        boolean addBasket(int[] productIds) {
+            if (productIds.length < 2 || productIds.length > MAX_BASKET_SIZE) {
+                return false;
+            }
+            orders++;
+            for (int a : productIds) {
+                frequency.add(a, 1);
+                IntIntCounter row = rows.computeIfAbsent(a, k -> new IntIntCounter());
+                for (int b : productIds) {
+                    if (a != b) {
+                        row.add(b, 1);
+                    }
+                }
+            }
+            return true;
+        }
+
+        int[] topK(int productId) {
+            IntIntCounter row = rows.get(productId);
+            if (row == null) {
+                return new int[0];
+            }
+            double freqA = frequency.get(productId);
+            int[] ids = new int[TOP_K];
+            double[] scores = new double[TOP_K];
+            int[] count = { 0 };
+
+            row.forEach((b, together) -> {
+                double score = together / Math.sqrt(freqA * frequency.get(b));
+                int n = count[0];
+                if (n == TOP_K && score <= scores[n - 1]) {
+                    return;
+                }
+                // Chèn vào mảng đã sắp xếp giảm dần
+                int pos = n == TOP_K ? n - 1 : n;
+                while (pos > 0 && scores[pos - 1] < score) {
+                    scores[pos] = scores[pos - 1];
+                    ids[pos] = ids[pos - 1];
+                    pos--;
+                }
+                scores[pos] = score;
+                ids[pos] = b;
+                if (n < TOP_K) {
+                    count[0]++;
+                }
+            });
+            return Arrays.copyOf(ids, count[0]);
+        }
+
+        Map<Integer, int[]> topKForAll() {
+            Map<Integer, int[]> result = new ConcurrentHashMap<>(rows.size() * 2);
+            for (Integer productId : rows.keySet()) {
+                result.put(productId, topK(productId));
+            }
+            return result;
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package com.tmdt.BEphonestore.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.tmdt.BEphonestore.entity.CartItem;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +22,19 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     void deleteByCartId(Long cartId);
 
+    @Query("SELECT ci.product.id, ci.quantity FROM CartItem ci WHERE ci.cart.id = :cartId ORDER BY ci.id")
+    List<Object[]> findLinesByCartId(@Param("cartId") Long cartId);
+
     @Query("SELECT SUM(ci.quantity * p.price) FROM CartItem ci " +
             "JOIN ci.product p WHERE ci.cart.id = :cartId")
     Double calculateCartTotal(@Param("cartId") Long cartId);
+
+    /**
+     * Xóa toàn bộ dòng của các giỏ trong danh sách, kiểm tra lại điều kiện cũ ngay trong câu lệnh
+     */
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id IN " +
+            "(SELECT c.id FROM Cart c WHERE c.id IN :cartIds AND c.updatedAt < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM CartItem r WHERE r.cart.id = c.id AND r.updatedAt >= :cutoff))")
+    int deleteStaleByCartIdIn(@Param("cartIds") Collection<Long> cartIds, @Param("cutoff") LocalDateTime cutoff);
 }
\ No newline at end of file
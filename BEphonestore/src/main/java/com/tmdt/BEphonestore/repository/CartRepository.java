@@ -1,8 +1,15 @@
 package com.tmdt.BEphonestore.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.tmdt.BEphonestore.entity.Cart;
@@ -13,4 +20,37 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserId(Long userId);
 
     Boolean existsByUserId(Long userId);
+
+    /**
+     * Giỏ kèm toàn bộ dòng và thông tin sản phẩm trong một truy vấn:
+     * [cartId, itemId, productId, quantity, productName, productImage, productPrice].
+     * Giỏ rỗng trả về một dòng với các cột của item là null
+     */
+    @Query("SELECT c.id, ci.id, p.id, ci.quantity, p.name, p.imageUrl, p.price FROM Cart c " +
+            "LEFT JOIN c.items ci LEFT JOIN ci.product p WHERE c.user.id = :userId ORDER BY ci.id")
+    List<Object[]> findContentsByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT c.user.id, c.id FROM Cart c WHERE c.user.id IN :userIds")
+    List<Object[]> findIdsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Giỏ không được sửa từ trước cutoff (kể cả các dòng), duyệt keyset theo (updatedAt, id):
+     * [cartId, userId, updatedAt]
+     */
+    @Query("SELECT c.id, c.user.id, c.updatedAt FROM Cart c WHERE c.updatedAt < :cutoff " +
+            "AND (c.updatedAt > :afterUpdatedAt OR (c.updatedAt = :afterUpdatedAt AND c.id > :afterId)) " +
+            "AND NOT EXISTS (SELECT 1 FROM CartItem ci WHERE ci.cart.id = c.id AND ci.updatedAt >= :cutoff) " +
+            "ORDER BY c.updatedAt, c.id")
+    List<Object[]> findStaleAfter(@Param("cutoff") LocalDateTime cutoff,
+            @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    /**
+     * Xóa các giỏ đã rỗng và vẫn còn cũ (giỏ vừa được thêm hàng thì giữ lại)
+     */
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.id IN :cartIds AND c.updatedAt < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM CartItem ci WHERE ci.cart.id = c.id)")
+    int deleteStaleEmpty(@Param("cartIds") Collection<Long> cartIds, @Param("cutoff") LocalDateTime cutoff);
 }
\ No newline at end of file
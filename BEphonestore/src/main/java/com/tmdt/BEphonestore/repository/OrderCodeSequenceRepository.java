@@ -0,0 +1,31 @@
+package com.tmdt.BEphonestore.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.tmdt.BEphonestore.entity.OrderCodeSequence;
+
+@Repository
+public interface OrderCodeSequenceRepository extends JpaRepository<OrderCodeSequence, String> {
+
+    /**
+     * Cộng dồn nguyên tử; dòng bị khóa đến hết transaction nên đọc lại ngay sau đó là an toàn
+     */
+    @Modifying
+    @Query("UPDATE OrderCodeSequence s SET s.nextValue = s.nextValue + :blockSize WHERE s.codeDate = :codeDate")
+    int advance(@Param("codeDate") String codeDate, @Param("blockSize") long blockSize);
+
+    /**
+     * Chèn dòng đầu tiên của ngày; dòng đã tồn tại thì lỗi khóa chính chứ không ghi đè
+     * (save/merge với id tự gán sẽ đọc rồi UPDATE, đưa bộ đếm instance khác vừa cộng về 1)
+     */
+    @Modifying
+    @Query("INSERT INTO OrderCodeSequence (codeDate, nextValue) VALUES (:codeDate, 1)")
+    int insertDay(@Param("codeDate") String codeDate);
+
+    @Query("SELECT s.nextValue FROM OrderCodeSequence s WHERE s.codeDate = :codeDate")
+    Long findNextValue(@Param("codeDate") String codeDate);
+}
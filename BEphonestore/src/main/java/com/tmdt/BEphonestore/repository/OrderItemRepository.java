@@ -1,11 +1,13 @@
 package com.tmdt.BEphonestore.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.tmdt.BEphonestore.entity.OrderItem;
+import com.tmdt.BEphonestore.enums.OrderStatus;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -27,4 +29,39 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
             "ORDER BY totalSold DESC")
     List<Object[]> findBestSellingProducts(@Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi " +
+            "JOIN oi.order o " +
+            "WHERE o.status <> :excludedStatus " +
+            "GROUP BY oi.product.id")
+    List<Object[]> sumSoldQuantityByProduct(@Param("excludedStatus") OrderStatus excludedStatus);
+
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi " +
+            "JOIN oi.order o " +
+            "WHERE o.status = :status " +
+            "GROUP BY oi.product.id")
+    List<Object[]> sumQuantityByProductAndStatus(@Param("status") OrderStatus status);
+
+    /**
+     * Số lượng bán theo sản phẩm và theo ngày (ngày cập nhật cuối của đơn, tức ngày hoàn thành)
+     */
+    @Query("SELECT oi.product.id, CAST(o.updatedAt AS LocalDate), SUM(oi.quantity) FROM OrderItem oi " +
+            "JOIN oi.order o " +
+            "WHERE o.status = :status AND o.updatedAt >= :since " +
+            "GROUP BY oi.product.id, CAST(o.updatedAt AS LocalDate)")
+    List<Object[]> sumDailyQuantityByProductAndStatus(@Param("status") OrderStatus status,
+            @Param("since") LocalDateTime since);
+
+    /**
+     * Quét (orderId, itemId, productId) theo thứ tự đơn hàng, keyset trên (orderId, itemId)
+     */
+    @Query("SELECT o.id, oi.id, oi.product.id FROM OrderItem oi " +
+            "JOIN oi.order o " +
+            "WHERE o.status = :status " +
+            "AND (o.id > :orderId OR (o.id = :orderId AND oi.id > :itemId)) " +
+            "ORDER BY o.id, oi.id")
+    List<Object[]> findLinesByStatusAfter(@Param("status") OrderStatus status,
+            @Param("orderId") Long orderId,
+            @Param("itemId") Long itemId,
+            Pageable pageable);
 }
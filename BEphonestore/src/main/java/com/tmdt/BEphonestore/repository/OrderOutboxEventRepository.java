@@ -0,0 +1,50 @@
+package com.tmdt.BEphonestore.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.tmdt.BEphonestore.entity.OrderOutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxEventRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    /**
+     * Sự kiện đến hạn, chỉ lấy sự kiện PENDING sớm nhất của mỗi đơn để giữ thứ tự theo đơn
+     */
+    @Query("SELECT e.id FROM OrderOutboxEvent e " +
+            "WHERE e.state = com.tmdt.BEphonestore.enums.OutboxState.PENDING AND e.nextAttemptAt <= :now " +
+            "AND NOT EXISTS (SELECT 1 FROM OrderOutboxEvent p WHERE p.orderId = e.orderId AND p.id < e.id " +
+            "AND p.state = com.tmdt.BEphonestore.enums.OutboxState.PENDING) " +
+            "ORDER BY e.id")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Nhận một lô bằng một câu lệnh; instance khác chỉ lấy lại được sau khi hết lease
+     */
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.claimToken = :token, e.nextAttemptAt = :leaseUntil " +
+            "WHERE e.id IN :ids AND e.state = com.tmdt.BEphonestore.enums.OutboxState.PENDING " +
+            "AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+            @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    List<OrderOutboxEvent> findByClaimTokenOrderByIdAsc(String claimToken);
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.state = com.tmdt.BEphonestore.enums.OutboxState.PROCESSED, " +
+            "e.processedAt = :now, e.claimToken = NULL WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.state = com.tmdt.BEphonestore.enums.OutboxState.PROCESSED " +
+            "AND e.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
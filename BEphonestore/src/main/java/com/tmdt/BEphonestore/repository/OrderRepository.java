@@ -2,6 +2,8 @@ package com.tmdt.BEphonestore.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,6 +14,7 @@ import com.tmdt.BEphonestore.enums.OrderStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +25,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Page<Order> findByUserId(Long userId, Pageable pageable);
 
+    @EntityGraph(attributePaths = "user")
+    List<Order> findByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "user")
+    Slice<Order> findByUserIdAndIdLessThan(Long userId, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    Slice<Order> findByIdLessThan(Long id, Pageable pageable);
+
     Page<Order> findByUserIdAndStatus(Long userId, OrderStatus status, Pageable pageable);
 
     Page<Order> findByStatus(OrderStatus status, Pageable pageable);
@@ -0,0 +1,14 @@
+package com.tmdt.BEphonestore.repository;
+
+import com.tmdt.BEphonestore.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Truy vấn theo Specification nhưng chỉ SELECT id (không nạp description/specifications)
+ */
+public interface ProductIdQueries {
+
+    Page<Long> findIds(Specification<Product> specification, Pageable pageable);
+}
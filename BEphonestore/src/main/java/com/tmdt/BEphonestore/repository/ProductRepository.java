@@ -2,19 +2,30 @@ package com.tmdt.BEphonestore.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
 import com.tmdt.BEphonestore.entity.Product;
 import com.tmdt.BEphonestore.enums.ProductStatus;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductIdQueries {
+
+    /**
+     * Tồn kho hiện tại trong DB (id, stock) của nhiều sản phẩm, một câu lệnh
+     */
+    @Query("SELECT p.id, p.stock FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findStockByIdIn(@Param("ids") Collection<Long> ids);
 
     Page<Product> findByStatus(ProductStatus status, Pageable pageable);
 
@@ -45,4 +56,68 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findTop10ByStatusOrderByCreatedAtDesc(ProductStatus status);
 
     Long countByStatus(ProductStatus status);
+
+    long countByCategoryId(Long categoryId);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    @Query("SELECT p.category.id, COUNT(p) FROM Product p GROUP BY p.category.id")
+    List<Object[]> countGroupByCategory();
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id > :afterId ORDER BY p.id")
+    List<Product> findChunkWithCategory(@Param("afterId") Long afterId, Pageable pageable);
+
+    // ===== Projection cho trang danh sách: chỉ đọc các cột cần cho thẻ sản phẩm =====
+
+    String SUMMARY_SELECT = "SELECT new com.tmdt.BEphonestore.dto.response.ProductSummaryResponse(" +
+            "p.id, p.name, p.price, p.stock, p.imageUrl, p.status, c.id, c.name, p.createdAt) " +
+            "FROM Product p LEFT JOIN p.category c ";
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.status = :status",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.status = :status")
+    Page<ProductSummaryResponse> findSummariesByStatus(@Param("status") ProductStatus status, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.status = :status AND p.id < :id")
+    Slice<ProductSummaryResponse> findSummariesByStatusAndIdLessThan(@Param("status") ProductStatus status,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.status = :status AND p.id > :id")
+    Slice<ProductSummaryResponse> findSummariesByStatusAndIdGreaterThan(@Param("status") ProductStatus status,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE c.id = :categoryId AND p.status = :status",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId AND p.status = :status")
+    Page<ProductSummaryResponse> findSummariesByCategoryIdAndStatus(@Param("categoryId") Long categoryId,
+            @Param("status") ProductStatus status,
+            Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.status = :status AND " +
+            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))",
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.status = :status AND " +
+                    "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+                    "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    Page<ProductSummaryResponse> searchSummariesByStatus(@Param("keyword") String keyword,
+            @Param("status") ProductStatus status,
+            Pageable pageable);
+
+    @Query(value = SUMMARY_SELECT + "WHERE p.status = :status AND p.price BETWEEN :minPrice AND :maxPrice",
+            countQuery = "SELECT COUNT(p) FROM Product p " +
+                    "WHERE p.status = :status AND p.price BETWEEN :minPrice AND :maxPrice")
+    Page<ProductSummaryResponse> findSummariesByPriceBetweenAndStatus(@Param("minPrice") BigDecimal minPrice,
+            @Param("maxPrice") BigDecimal maxPrice,
+            @Param("status") ProductStatus status,
+            Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.status = :status ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryResponse> findLatestSummaries(@Param("status") ProductStatus status, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids")
+    List<ProductSummaryResponse> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
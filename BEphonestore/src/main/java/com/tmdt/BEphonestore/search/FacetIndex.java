@@ -0,0 +1,360 @@
+package com.tmdt.BEphonestore.search;
+
+import com.tmdt.BEphonestore.dto.request.ProductFilterRequest;
+import com.tmdt.BEphonestore.dto.response.FacetCountResponse;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.event.CategoryChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index (Roaring) theo từng thuộc tính của sản phẩm ACTIVE:
+ * hãng, khoảng giá và còn hàng. Lọc kết hợp là phép giao bitmap,
+ * số lượng theo facet là cardinality của phép giao nên không cần GROUP BY.
+ */
+@Component
+public class FacetIndex implements ProductIndex {
+
+    private static final long[] BAND_BOUNDS = { 0L, 5_000_000L, 10_000_000L, 15_000_000L, 20_000_000L, 30_000_000L };
+    private static final String[] BAND_LABELS = {
+            "Dưới 5 triệu", "5 - 10 triệu", "10 - 15 triệu", "15 - 20 triệu", "20 - 30 triệu", "Trên 30 triệu" };
+    private static final String[] BAND_KEYS = new String[BAND_BOUNDS.length];
+
+    static {
+        for (int i = 0; i < BAND_BOUNDS.length; i++) {
+            BAND_KEYS[i] = i == BAND_BOUNDS.length - 1
+                    ? BAND_BOUNDS[i] + "+"
+                    : BAND_BOUNDS[i] + "-" + BAND_BOUNDS[i + 1];
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            state.remove(toDocId(product.getId()));
+            state.add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(toDocId(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        State fresh = new State();
+        return new Rebuild() {
+            @Override
+            public void add(Product product) {
+                fresh.add(product);
+            }
+
+            @Override
+            public void finish() {
+                lock.writeLock().lock();
+                try {
+                    state = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getCategory() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (state.categoryNames.containsKey(event.getCategoryId())) {
+                state.categoryNames.put(event.getCategoryId(), event.getCategory().getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lọc sản phẩm và tính số lượng theo facet.
+     *
+     * @param keywordRanking id khớp từ khóa theo thứ tự liên quan, null nếu không lọc theo từ khóa
+     * @param specMatches    id thỏa điều kiện thông số, null nếu không lọc theo thông số
+     */
+    public FacetResult query(ProductFilterRequest filter, List<Long> keywordRanking, RoaringBitmap specMatches,
+            long offset, int limit) {
+        RoaringBitmap keywordMatches = null;
+        if (keywordRanking != null) {
+            keywordMatches = new RoaringBitmap();
+            for (Long id : keywordRanking) {
+                keywordMatches.add(toDocId(id));
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap base = state.active.clone();
+            if (keywordMatches != null) {
+                base.and(keywordMatches);
+            }
+            if (specMatches != null) {
+                base.and(specMatches);
+            }
+            if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+                base = state.filterByPrice(base, filter.getMinPrice(), filter.getMaxPrice());
+            }
+
+            RoaringBitmap categoryFilter = state.categoryFilter(filter.getCategoryIds());
+            RoaringBitmap bandFilter = state.bandFilter(filter.getPriceBands());
+            RoaringBitmap stockFilter = null;
+            if (filter.getInStock() != null) {
+                stockFilter = filter.getInStock()
+                        ? state.inStock
+                        : RoaringBitmap.andNot(state.active, state.inStock);
+            }
+
+            // Mỗi facet được đếm trên kết quả của các bộ lọc còn lại (lọc nhiều lựa chọn)
+            RoaringBitmap forCategories = intersect(base, bandFilter, stockFilter);
+            RoaringBitmap forBands = intersect(base, categoryFilter, stockFilter);
+            RoaringBitmap forStock = intersect(base, categoryFilter, bandFilter);
+            RoaringBitmap matches = intersect(forStock, stockFilter);
+
+            List<FacetCountResponse> categoryCounts = new ArrayList<>();
+            for (Map.Entry<Long, RoaringBitmap> entry : state.byCategory.entrySet()) {
+                long count = RoaringBitmap.andCardinality(forCategories, entry.getValue());
+                if (count > 0) {
+                    categoryCounts.add(new FacetCountResponse(String.valueOf(entry.getKey()),
+                            state.categoryNames.get(entry.getKey()), count));
+                }
+            }
+
+            List<FacetCountResponse> bandCounts = new ArrayList<>();
+            for (int i = 0; i < BAND_KEYS.length; i++) {
+                bandCounts.add(new FacetCountResponse(BAND_KEYS[i], BAND_LABELS[i],
+                        RoaringBitmap.andCardinality(forBands, state.byBand[i])));
+            }
+
+            long inStockCount = RoaringBitmap.andCardinality(forStock, state.inStock);
+            long outOfStockCount = forStock.getLongCardinality() - inStockCount;
+
+            List<Long> pageIds = keywordRanking != null
+                    ? pageByRanking(matches, keywordRanking, offset, limit)
+                    : pageByIdDesc(matches, offset, limit);
+
+            return new FacetResult(pageIds, matches.getLongCardinality(), categoryCounts, bandCounts,
+                    inStockCount, outOfStockCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap base, RoaringBitmap... filters) {
+        RoaringBitmap result = base;
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result = RoaringBitmap.and(result, filter);
+            }
+        }
+        return result;
+    }
+
+    private static List<Long> pageByIdDesc(RoaringBitmap matches, long offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        IntIterator it = matches.getReverseIntIterator();
+        long skipped = 0;
+        while (it.hasNext() && ids.size() < limit) {
+            int docId = it.next();
+            if (skipped++ >= offset) {
+                ids.add((long) docId);
+            }
+        }
+        return ids;
+    }
+
+    private static List<Long> pageByRanking(RoaringBitmap matches, List<Long> ranking, long offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        long skipped = 0;
+        for (Long id : ranking) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            if (matches.contains(toDocId(id)) && skipped++ >= offset) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static int toDocId(Long productId) {
+        return Math.toIntExact(productId);
+    }
+
+    /**
+     * Khoảng giá [từ, đến) của một khóa khoảng giá, "đến" là null với khoảng cuối; null nếu khóa không hợp lệ
+     */
+    public static BigDecimal[] bandRange(String bandKey) {
+        for (int i = 0; i < BAND_KEYS.length; i++) {
+            if (BAND_KEYS[i].equals(bandKey)) {
+                return new BigDecimal[] {
+                        i == 0 ? null : BigDecimal.valueOf(BAND_BOUNDS[i]),
+                        i == BAND_BOUNDS.length - 1 ? null : BigDecimal.valueOf(BAND_BOUNDS[i + 1])
+                };
+            }
+        }
+        return null;
+    }
+
+    private static int bandOf(BigDecimal price) {
+        long value = price != null ? price.longValue() : 0L;
+        for (int i = BAND_BOUNDS.length - 1; i > 0; i--) {
+            if (value >= BAND_BOUNDS[i]) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class FacetResult {
+        private final List<Long> ids;
+        private final long total;
+        private final List<FacetCountResponse> categories;
+        private final List<FacetCountResponse> priceBands;
+        private final long inStockCount;
+        private final long outOfStockCount;
+    }
+
+    private static class Doc {
+        final Long categoryId;
+        final int band;
+        final BigDecimal price;
+
+        Doc(Long categoryId, int band, BigDecimal price) {
+            this.categoryId = categoryId;
+            this.band = band;
+            this.price = price;
+        }
+    }
+
+    private static class State {
+        final RoaringBitmap active = new RoaringBitmap();
+        final RoaringBitmap inStock = new RoaringBitmap();
+        final Map<Long, RoaringBitmap> byCategory = new TreeMap<>();
+        final Map<Long, String> categoryNames = new HashMap<>();
+        final RoaringBitmap[] byBand = new RoaringBitmap[BAND_BOUNDS.length];
+        final Map<Integer, Doc> docs = new HashMap<>();
+
+        State() {
+            for (int i = 0; i < byBand.length; i++) {
+                byBand[i] = new RoaringBitmap();
+            }
+        }
+
+        void add(Product product) {
+            if (product.getStatus() != ProductStatus.ACTIVE) {
+                return;
+            }
+            int docId = toDocId(product.getId());
+            Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+            int band = bandOf(product.getPrice());
+
+            active.add(docId);
+            if (product.getStock() != null && product.getStock() > 0) {
+                inStock.add(docId);
+            }
+            if (categoryId != null) {
+                byCategory.computeIfAbsent(categoryId, k -> new RoaringBitmap()).add(docId);
+                categoryNames.put(categoryId, product.getCategory().getName());
+            }
+            byBand[band].add(docId);
+            docs.put(docId, new Doc(categoryId, band, product.getPrice()));
+        }
+
+        void remove(int docId) {
+            Doc doc = docs.remove(docId);
+            if (doc == null) {
+                return;
+            }
+            active.remove(docId);
+            inStock.remove(docId);
+            byBand[doc.band].remove(docId);
+            if (doc.categoryId != null) {
+                RoaringBitmap bitmap = byCategory.get(doc.categoryId);
+                bitmap.remove(docId);
+                if (bitmap.isEmpty()) {
+                    byCategory.remove(doc.categoryId);
+                }
+            }
+        }
+
+        RoaringBitmap categoryFilter(List<Long> categoryIds) {
+            if (categoryIds == null || categoryIds.isEmpty()) {
+                return null;
+            }
+            RoaringBitmap result = new RoaringBitmap();
+            for (Long categoryId : categoryIds) {
+                RoaringBitmap bitmap = byCategory.get(categoryId);
+                if (bitmap != null) {
+                    result.or(bitmap);
+                }
+            }
+            return result;
+        }
+
+        RoaringBitmap bandFilter(List<String> bandKeys) {
+            if (bandKeys == null || bandKeys.isEmpty()) {
+                return null;
+            }
+            RoaringBitmap result = new RoaringBitmap();
+            for (int i = 0; i < BAND_KEYS.length; i++) {
+                if (bandKeys.contains(BAND_KEYS[i])) {
+                    result.or(byBand[i]);
+                }
+            }
+            return result;
+        }
+
+        RoaringBitmap filterByPrice(RoaringBitmap candidates, BigDecimal min, BigDecimal max) {
+            RoaringBitmap result = new RoaringBitmap();
+            IntIterator it = candidates.getIntIterator();
+            while (it.hasNext()) {
+                int docId = it.next();
+                BigDecimal price = docs.get(docId).price;
+                if (price == null) {
+                    continue;
+                }
+                if ((min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0)) {
+                    result.add(docId);
+                }
+            }
+            return result;
+        }
+    }
+}
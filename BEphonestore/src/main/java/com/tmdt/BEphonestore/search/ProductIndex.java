@@ -0,0 +1,33 @@
+package com.tmdt.BEphonestore.search;
+
+import com.tmdt.BEphonestore.entity.Product;
+
+/**
+ * Một cấu trúc dữ liệu trong bộ nhớ được dựng từ bảng Product.
+ * {@link ProductIndexManager} cập nhật tăng dần sau mỗi lần ghi
+ * và dựng lại toàn bộ khi khởi động hoặc khi admin yêu cầu.
+ */
+public interface ProductIndex {
+
+    /**
+     * Thêm mới hoặc cập nhật một sản phẩm trong index
+     */
+    void index(Product product);
+
+    /**
+     * Xóa sản phẩm khỏi index
+     */
+    void remove(Long productId);
+
+    /**
+     * Bắt đầu dựng lại index. Dữ liệu cũ vẫn phục vụ đọc cho tới khi
+     * {@link Rebuild#finish()} được gọi.
+     */
+    Rebuild beginRebuild();
+
+    interface Rebuild {
+        void add(Product product);
+
+        void finish();
+    }
+}
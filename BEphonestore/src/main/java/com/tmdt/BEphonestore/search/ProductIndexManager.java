@@ -0,0 +1,134 @@
+package com.tmdt.BEphonestore.search;
+
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
+import com.tmdt.BEphonestore.event.ProductsImportedEvent;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Điều phối các {@link ProductIndex}: dựng lại toàn bộ bằng một lần quét
+ * bảng Product theo từng khối id, và cập nhật tăng dần sau khi commit.
+ *
+ * Thay đổi đến trong lúc đang dựng lại vẫn được áp vào dữ liệu cũ (đang phục vụ đọc) và được giữ lại,
+ * rồi áp lại lên dữ liệu mới ngay sau finish(), nên không bị bản chụp ghi đè mất.
+ */
+@Slf4j
+@Component
+public class ProductIndexManager {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final List<ProductIndex> indexes;
+    private final ProductRepository productRepository;
+
+    private volatile boolean ready = false;
+
+    // Khác null khi đang dựng lại: các thay đổi cần áp lại sau finish(); truy cập dưới khóa pendingLock
+    private final Object pendingLock = new Object();
+    private List<ProductChangedEvent> pending;
+
+    public ProductIndexManager(List<ProductIndex> indexes, ProductRepository productRepository) {
+        this.indexes = indexes;
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuildAll();
+        } catch (Exception ex) {
+            log.error("Could not build product indexes on startup: {}", ex.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (pendingLock) {
+            apply(event);
+            if (pending != null) {
+                pending.add(event);
+            }
+        }
+    }
+
+    private void apply(ProductChangedEvent event) {
+        for (ProductIndex index : indexes) {
+            if (event.getType() == ProductChangedEvent.ChangeType.DELETED) {
+                index.remove(event.getProductId());
+            } else {
+                index.index(event.getProduct());
+            }
+        }
+    }
+
+    /**
+     * Nhập hàng loạt: một lần quét lại rẻ hơn cập nhật từng sản phẩm
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        rebuildAll();
+    }
+
+    /**
+     * Dựng lại tất cả index, trả về số sản phẩm đã nạp
+     */
+    public synchronized long rebuildAll() {
+        long start = System.currentTimeMillis();
+        synchronized (pendingLock) {
+            pending = new ArrayList<>();
+        }
+
+        long count = 0;
+        int replayed;
+        try {
+            List<ProductIndex.Rebuild> rebuilds = new ArrayList<>(indexes.size());
+            for (ProductIndex index : indexes) {
+                rebuilds.add(index.beginRebuild());
+            }
+
+            long afterId = 0L;
+            List<Product> chunk;
+            do {
+                chunk = productRepository.findChunkWithCategory(afterId, PageRequest.of(0, REBUILD_CHUNK_SIZE));
+                for (Product product : chunk) {
+                    for (ProductIndex.Rebuild rebuild : rebuilds) {
+                        rebuild.add(product);
+                    }
+                    afterId = product.getId();
+                    count++;
+                }
+            } while (chunk.size() == REBUILD_CHUNK_SIZE);
+
+            synchronized (pendingLock) {
+                rebuilds.forEach(ProductIndex.Rebuild::finish);
+                pending.forEach(this::apply);
+                replayed = pending.size();
+            }
+        } finally {
+            clearPending();
+        }
+        ready = true;
+        log.info("Rebuilt {} product indexes from {} products in {} ms ({} changes replayed)",
+                indexes.size(), count, System.currentTimeMillis() - start, replayed);
+        return count;
+    }
+
+    private void clearPending() {
+        synchronized (pendingLock) {
+            pending = null;
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
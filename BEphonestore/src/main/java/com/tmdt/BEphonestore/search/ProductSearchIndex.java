@@ -0,0 +1,265 @@
+package com.tmdt.BEphonestore.search;
+
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index trong bộ nhớ cho tìm kiếm sản phẩm.
+ * Token hóa name/description/specifications (bỏ dấu tiếng Việt),
+ * xếp hạng theo BM25 với trọng số theo trường.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float SPECIFICATIONS_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Số term tối đa được mở rộng từ một tiền tố
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            state.remove(product.getId());
+            state.add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        State fresh = new State();
+        return new Rebuild() {
+            @Override
+            public void add(Product product) {
+                fresh.add(product);
+            }
+
+            @Override
+            public void finish() {
+                lock.writeLock().lock();
+                try {
+                    state = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Tìm sản phẩm ACTIVE khớp với tất cả từ khóa, trả về một trang id theo điểm giảm dần
+     */
+    public SearchResult search(String query, long offset, int limit) {
+        List<Long> ids = searchIds(query);
+        int from = (int) Math.min(offset, ids.size());
+        int to = (int) Math.min(offset + limit, ids.size());
+        return new SearchResult(new ArrayList<>(ids.subList(from, to)), ids.size());
+    }
+
+    /**
+     * Toàn bộ id sản phẩm ACTIVE khớp với từ khóa, đã xếp hạng
+     */
+    public List<Long> searchIds(String query) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            return state.search(tokens);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+        private final List<Long> ids;
+        private final long total;
+    }
+
+    private static class Doc {
+        final String[] terms;
+        final float length;
+        final boolean active;
+
+        Doc(String[] terms, float length, boolean active) {
+            this.terms = terms;
+            this.length = length;
+            this.active = active;
+        }
+    }
+
+    private static class State {
+        final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        final Map<Long, Doc> docs = new HashMap<>();
+        double totalLength = 0;
+
+        void add(Product product) {
+            Map<String, Float> frequencies = new HashMap<>();
+            float length = addField(frequencies, product.getName(), NAME_WEIGHT)
+                    + addField(frequencies, product.getSpecifications(), SPECIFICATIONS_WEIGHT)
+                    + addField(frequencies, product.getDescription(), DESCRIPTION_WEIGHT);
+
+            for (Map.Entry<String, Float> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>())
+                        .put(product.getId(), entry.getValue());
+            }
+            docs.put(product.getId(), new Doc(frequencies.keySet().toArray(new String[0]), length,
+                    product.getStatus() == ProductStatus.ACTIVE));
+            totalLength += length;
+        }
+
+        void remove(Long productId) {
+            Doc doc = docs.remove(productId);
+            if (doc == null) {
+                return;
+            }
+            for (String term : doc.terms) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(productId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= doc.length;
+        }
+
+        List<Long> search(List<String> tokens) {
+            if (docs.isEmpty()) {
+                return Collections.emptyList();
+            }
+            double avgLength = totalLength / docs.size();
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean last = i == tokens.size() - 1;
+                Map<Long, Double> tokenScores = scoreToken(tokens.get(i), last, avgLength);
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    Map<Long, Double> merged = new HashMap<>();
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        Double other = tokenScores.get(entry.getKey());
+                        if (other != null) {
+                            merged.put(entry.getKey(), entry.getValue() + other);
+                        }
+                    }
+                    scores = merged;
+                }
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> {
+                int cmp = Double.compare(b.getValue(), a.getValue());
+                return cmp != 0 ? cmp : Long.compare(b.getKey(), a.getKey());
+            });
+            List<Long> ids = new ArrayList<>(ranked.size());
+            for (Map.Entry<Long, Double> entry : ranked) {
+                ids.add(entry.getKey());
+            }
+            return ids;
+        }
+
+        /**
+         * Điểm BM25 của một token. Token cuối (hoặc token không có term khớp
+         * chính xác) được mở rộng theo tiền tố để hỗ trợ gõ dở từ.
+         */
+        private Map<Long, Double> scoreToken(String token, boolean allowPrefix, double avgLength) {
+            List<String> terms = new ArrayList<>();
+            if (postings.containsKey(token)) {
+                terms.add(token);
+            }
+            if (allowPrefix || terms.isEmpty()) {
+                NavigableMap<String, Map<Long, Float>> range = postings.subMap(token, false, token + Character.MAX_VALUE, false);
+                for (String term : range.keySet()) {
+                    if (terms.size() >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    terms.add(term);
+                }
+            }
+
+            Map<Long, Double> result = new HashMap<>();
+            int n = docs.size();
+            for (String term : terms) {
+                Map<Long, Float> posting = postings.get(term);
+                double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+                // Khớp tiền tố được chấm thấp hơn khớp chính xác
+                double boost = term.equals(token) ? 1.0 : 0.7;
+
+                for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+                    Doc doc = docs.get(entry.getKey());
+                    if (!doc.active) {
+                        continue;
+                    }
+                    double tf = entry.getValue();
+                    double norm = tf + K1 * (1 - B + B * doc.length / avgLength);
+                    double score = boost * idf * (tf * (K1 + 1)) / norm;
+                    result.merge(entry.getKey(), score, Math::max);
+                }
+            }
+            return result;
+        }
+
+        private static float addField(Map<String, Float> frequencies, String text, float weight) {
+            if (text == null || text.isEmpty()) {
+                return 0f;
+            }
+            List<String> tokens = TextNormalizer.tokenize(text);
+            for (String token : tokens) {
+                frequencies.merge(token, weight, Float::sum);
+            }
+            return tokens.size() * weight;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.tmdt.BEphonestore.search;
+
+import java.util.List;
+
+/**
+ * Các thuộc tính thông số kỹ thuật được nhận diện và đánh index.
+ * Thuộc tính số được quy về một đơn vị chung (GB, inch, mAh, MP).
+ */
+public enum SpecAttribute {
+    RAM("ram", "RAM", true, List.of("ram", "bo nho ram")),
+    STORAGE("storage", "Bộ nhớ trong", true, List.of("rom", "storage", "bo nho trong", "dung luong luu tru", "bo nho")),
+    SCREEN("screen", "Màn hình", true, List.of("man hinh", "screen", "display", "kich thuoc man hinh")),
+    BATTERY("battery", "Pin", true, List.of("pin", "battery", "dung luong pin")),
+    CAMERA("camera", "Camera", true, List.of("camera", "camera sau", "camera chinh")),
+    CHIP("chip", "Chip", false, List.of("chip", "chipset", "cpu", "vi xu ly")),
+    OS("os", "Hệ điều hành", false, List.of("os", "he dieu hanh"));
+
+    private final String key;
+    private final String label;
+    private final boolean numeric;
+    private final List<String> aliases; // đã bỏ dấu, chữ thường
+
+    SpecAttribute(String key, String label, boolean numeric, List<String> aliases) {
+        this.key = key;
+        this.label = label;
+        this.numeric = numeric;
+        this.aliases = aliases;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * Tìm thuộc tính theo tên dòng thông số (đã bỏ dấu), null nếu không nhận diện được
+     */
+    public static SpecAttribute fromName(String foldedName) {
+        for (SpecAttribute attribute : values()) {
+            if (attribute.aliases.contains(foldedName)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tìm thuộc tính theo key dùng trong bộ lọc (ram, storage...), null nếu không có
+     */
+    public static SpecAttribute fromKey(String key) {
+        for (SpecAttribute attribute : values()) {
+            if (attribute.key.equalsIgnoreCase(key)) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,388 @@
+package com.tmdt.BEphonestore.search;
+
+import com.tmdt.BEphonestore.dto.response.SpecRowResponse;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index thông số kỹ thuật của sản phẩm ACTIVE, được phân tích một lần khi ghi.
+ * Thuộc tính số lưu theo cột: mảng giá trị đã sắp xếp kèm mảng id tương ứng,
+ * lọc khoảng bằng tìm kiếm nhị phân. Thuộc tính chuỗi được mã hóa từ điển,
+ * mỗi giá trị một bitmap.
+ */
+@Component
+public class SpecIndex implements ProductIndex {
+
+    private static final Pattern EXPRESSION = Pattern.compile("^\\s*([a-zA-Z]+)\\s*(>=|<=|>|<|=)\\s*(.+?)\\s*$");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+
+    @Override
+    public void index(Product product) {
+        SpecificationParser.ParsedSpecs specs = SpecificationParser.parse(product.getSpecifications());
+        lock.writeLock().lock();
+        try {
+            state.remove(toDocId(product.getId()));
+            state.add(product, specs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            state.remove(toDocId(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        State fresh = new State();
+        return new Rebuild() {
+            @Override
+            public void add(Product product) {
+                fresh.add(product, SpecificationParser.parse(product.getSpecifications()));
+            }
+
+            @Override
+            public void finish() {
+                lock.writeLock().lock();
+                try {
+                    state = fresh;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    /**
+     * Lọc theo các biểu thức như "ram>=8", "storage=128|256", "chip=snapdragon".
+     *
+     * @return id sản phẩm thỏa mãn tất cả biểu thức, null nếu không có biểu thức nào
+     */
+    public RoaringBitmap match(List<String> expressions) {
+        if (expressions == null || expressions.isEmpty()) {
+            return null;
+        }
+        List<Condition> conditions = new ArrayList<>(expressions.size());
+        for (String expression : expressions) {
+            if (expression != null && !expression.isBlank()) {
+                conditions.add(Condition.parse(expression));
+            }
+        }
+        if (conditions.isEmpty()) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+            for (Condition condition : conditions) {
+                RoaringBitmap matches = condition.attribute.isNumeric()
+                        ? state.numeric.get(condition.attribute).match(condition)
+                        : state.text.get(condition.attribute).match(condition.values);
+                result = result == null ? matches : RoaringBitmap.and(result, matches);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bảng so sánh: mỗi dòng một thông số, các giá trị theo đúng thứ tự productIds
+     * (null nếu sản phẩm không có thông số đó). Thuộc tính chuẩn đứng trước.
+     */
+    public List<SpecRowResponse> compare(List<Long> productIds) {
+        List<SpecificationParser.ParsedSpecs> columns = new ArrayList<>(productIds.size());
+        lock.readLock().lock();
+        try {
+            for (Long id : productIds) {
+                columns.add(state.docs.getOrDefault(toDocId(id), SpecificationParser.ParsedSpecs.EMPTY));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, SpecRowResponse> rows = new LinkedHashMap<>();
+        for (SpecAttribute attribute : SpecAttribute.values()) {
+            rows.put(attribute.getKey(), new SpecRowResponse(attribute.getKey(), attribute.getLabel(),
+                    Arrays.asList(new String[productIds.size()])));
+        }
+        for (int column = 0; column < columns.size(); column++) {
+            for (SpecificationParser.Line line : columns.get(column).getLines()) {
+                String key = line.getAttribute() != null ? line.getAttribute().getKey() : line.getName();
+                SpecRowResponse row = rows.computeIfAbsent(key, k -> new SpecRowResponse(k, line.getLabel(),
+                        Arrays.asList(new String[productIds.size()])));
+                if (row.getValues().get(column) == null) {
+                    row.getValues().set(column, line.getValue());
+                }
+            }
+        }
+        rows.values().removeIf(row -> row.getValues().stream().allMatch(value -> value == null));
+        return new ArrayList<>(rows.values());
+    }
+
+    private static int toDocId(Long productId) {
+        return Math.toIntExact(productId);
+    }
+
+    /**
+     * Một điều kiện lọc đã phân tích
+     */
+    private static class Condition {
+        final SpecAttribute attribute;
+        final String operator;
+        final List<String> values; // chuỗi: đã bỏ dấu; số: giá trị gốc
+        final double[] numbers;
+
+        private Condition(SpecAttribute attribute, String operator, List<String> values, double[] numbers) {
+            this.attribute = attribute;
+            this.operator = operator;
+            this.values = values;
+            this.numbers = numbers;
+        }
+
+        static Condition parse(String expression) {
+            Matcher matcher = EXPRESSION.matcher(expression);
+            if (!matcher.matches()) {
+                throw new BadRequestException("Invalid spec filter: " + expression);
+            }
+            SpecAttribute attribute = SpecAttribute.fromKey(matcher.group(1));
+            if (attribute == null) {
+                throw new BadRequestException("Unknown spec attribute: " + matcher.group(1));
+            }
+            String operator = matcher.group(2);
+            List<String> values = Arrays.stream(matcher.group(3).split("\\|"))
+                    .map(String::trim)
+                    .filter(value -> !value.isEmpty())
+                    .toList();
+            if (values.isEmpty() || (!operator.equals("=") && values.size() > 1)) {
+                throw new BadRequestException("Invalid spec filter: " + expression);
+            }
+
+            if (!attribute.isNumeric()) {
+                if (!operator.equals("=")) {
+                    throw new BadRequestException("Only '=' is supported for " + attribute.getKey());
+                }
+                return new Condition(attribute, operator,
+                        values.stream().map(value -> String.join(" ", TextNormalizer.tokenize(value))).toList(),
+                        null);
+            }
+
+            double[] numbers = new double[values.size()];
+            for (int i = 0; i < values.size(); i++) {
+                Double number = SpecificationParser.parseNumber(attribute, values.get(i));
+                if (number == null) {
+                    throw new BadRequestException("Invalid number in spec filter: " + expression);
+                }
+                numbers[i] = number;
+            }
+            return new Condition(attribute, operator, values, numbers);
+        }
+    }
+
+    /**
+     * Cột số: values tăng dần, docIds tương ứng (cùng giá trị thì theo id)
+     */
+    private static class NumericColumn {
+        double[] values = new double[16];
+        int[] docIds = new int[16];
+        int size;
+
+        void add(int docId, double value) {
+            int pos = -(find(value, docId) + 1);
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                docIds = Arrays.copyOf(docIds, size * 2);
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            System.arraycopy(docIds, pos, docIds, pos + 1, size - pos);
+            values[pos] = value;
+            docIds[pos] = docId;
+            size++;
+        }
+
+        void remove(int docId, double value) {
+            int pos = find(value, docId);
+            if (pos < 0) {
+                return;
+            }
+            System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+            System.arraycopy(docIds, pos + 1, docIds, pos, size - pos - 1);
+            size--;
+        }
+
+        RoaringBitmap match(Condition condition) {
+            RoaringBitmap result = new RoaringBitmap();
+            switch (condition.operator) {
+                case "=" -> {
+                    for (double number : condition.numbers) {
+                        addRange(result, lowerBound(number), upperBound(number));
+                    }
+                }
+                case ">=" -> addRange(result, lowerBound(condition.numbers[0]), size);
+                case ">" -> addRange(result, upperBound(condition.numbers[0]), size);
+                case "<=" -> addRange(result, 0, upperBound(condition.numbers[0]));
+                case "<" -> addRange(result, 0, lowerBound(condition.numbers[0]));
+                default -> throw new IllegalStateException(condition.operator);
+            }
+            return result;
+        }
+
+        private void addRange(RoaringBitmap bitmap, int from, int to) {
+            for (int i = from; i < to; i++) {
+                bitmap.add(docIds[i]);
+            }
+        }
+
+        // Vị trí đầu tiên có giá trị >= value
+        private int lowerBound(double value) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // Vị trí đầu tiên có giá trị > value
+        private int upperBound(double value) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] <= value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // Tìm đúng cặp (value, docId); không có thì trả về -(vị trí chèn) - 1
+        private int find(double value, int docId) {
+            int lo = 0;
+            int hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = Double.compare(values[mid], value);
+                if (cmp == 0) {
+                    cmp = Integer.compare(docIds[mid], docId);
+                }
+                if (cmp < 0) {
+                    lo = mid + 1;
+                } else if (cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(lo + 1);
+        }
+    }
+
+    /**
+     * Cột chuỗi mã hóa từ điển: mỗi giá trị khác nhau một mã và một bitmap
+     */
+    private static class TextColumn {
+        final Map<String, Integer> codes = new HashMap<>();
+        final List<String> dictionary = new ArrayList<>();
+        final List<RoaringBitmap> postings = new ArrayList<>();
+
+        void add(int docId, String value) {
+            int code = codes.computeIfAbsent(value, v -> {
+                dictionary.add(v);
+                postings.add(new RoaringBitmap());
+                return dictionary.size() - 1;
+            });
+            postings.get(code).add(docId);
+        }
+
+        void remove(int docId, String value) {
+            Integer code = codes.get(value);
+            if (code != null) {
+                postings.get(code).remove(docId);
+            }
+        }
+
+        /**
+         * Khớp nếu giá trị chứa đủ các từ cần tìm liền nhau, ví dụ "snapdragon" khớp "snapdragon 8 gen 3".
+         * Chỉ duyệt từ điển (số giá trị khác nhau), không duyệt từng sản phẩm.
+         */
+        RoaringBitmap match(List<String> queries) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (int code = 0; code < dictionary.size(); code++) {
+                String padded = " " + dictionary.get(code) + " ";
+                for (String query : queries) {
+                    if (padded.contains(" " + query + " ")) {
+                        result.or(postings.get(code));
+                        break;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class State {
+        final Map<Integer, SpecificationParser.ParsedSpecs> docs = new HashMap<>();
+        final Map<SpecAttribute, NumericColumn> numeric = new EnumMap<>(SpecAttribute.class);
+        final Map<SpecAttribute, TextColumn> text = new EnumMap<>(SpecAttribute.class);
+
+        State() {
+            for (SpecAttribute attribute : SpecAttribute.values()) {
+                if (attribute.isNumeric()) {
+                    numeric.put(attribute, new NumericColumn());
+                } else {
+                    text.put(attribute, new TextColumn());
+                }
+            }
+        }
+
+        void add(Product product, SpecificationParser.ParsedSpecs specs) {
+            if (product.getStatus() != ProductStatus.ACTIVE) {
+                return;
+            }
+            int docId = toDocId(product.getId());
+            docs.put(docId, specs);
+            specs.getNumbers().forEach((attribute, value) -> numeric.get(attribute).add(docId, value));
+            specs.getTexts().forEach((attribute, value) -> text.get(attribute).add(docId, value));
+        }
+
+        void remove(int docId) {
+            SpecificationParser.ParsedSpecs specs = docs.remove(docId);
+            if (specs == null) {
+                return;
+            }
+            specs.getNumbers().forEach((attribute, value) -> numeric.get(attribute).remove(docId, value));
+            specs.getTexts().forEach((attribute, value) -> text.get(attribute).remove(docId, value));
+        }
+    }
+}
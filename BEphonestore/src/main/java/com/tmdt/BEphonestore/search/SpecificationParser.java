@@ -0,0 +1,113 @@
+package com.tmdt.BEphonestore.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tách chuỗi thông số kỹ thuật dạng "Tên: giá trị" (mỗi dòng hoặc cách nhau bởi ';')
+ * thành các dòng, đồng thời nhận diện thuộc tính chuẩn và quy đổi giá trị số.
+ * Ví dụ: "RAM: 8GB\nROM: 1TB\nPin: 5.000 mAh" -> ram=8, storage=1024, battery=5000
+ */
+public final class SpecificationParser {
+
+    // "5.000" / "5,000" là số có dấu phân cách hàng nghìn, "6.7" / "6,1" là số thập phân
+    private static final Pattern NUMBER = Pattern.compile(
+            "(\\d{1,3}(?:[.,]\\d{3})+(?![.,]?\\d)|\\d+(?:[.,]\\d+)?)\\s*([a-z]*)");
+
+    private SpecificationParser() {
+    }
+
+    public static ParsedSpecs parse(String specifications) {
+        if (specifications == null || specifications.isBlank()) {
+            return ParsedSpecs.EMPTY;
+        }
+
+        List<Line> lines = new ArrayList<>();
+        Map<SpecAttribute, Double> numbers = new EnumMap<>(SpecAttribute.class);
+        Map<SpecAttribute, String> texts = new EnumMap<>(SpecAttribute.class);
+
+        for (String rawLine : specifications.split("[\\r\\n;]+")) {
+            int separator = rawLine.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            String label = rawLine.substring(0, separator).trim();
+            String value = rawLine.substring(separator + 1).trim();
+            if (label.isEmpty() || value.isEmpty()) {
+                continue;
+            }
+
+            String name = String.join(" ", TextNormalizer.tokenize(label));
+            SpecAttribute attribute = SpecAttribute.fromName(name);
+            lines.add(new Line(name, label, value, attribute));
+
+            // Dòng trùng thuộc tính: giữ giá trị đầu tiên
+            if (attribute == null || numbers.containsKey(attribute) || texts.containsKey(attribute)) {
+                continue;
+            }
+            if (attribute.isNumeric()) {
+                Double number = parseNumber(attribute, value);
+                if (number != null) {
+                    numbers.put(attribute, number);
+                }
+            } else {
+                texts.put(attribute, String.join(" ", TextNormalizer.tokenize(value)));
+            }
+        }
+        return new ParsedSpecs(Collections.unmodifiableList(lines), numbers, texts);
+    }
+
+    /**
+     * Lấy số đầu tiên trong giá trị, quy về đơn vị chuẩn của thuộc tính
+     */
+    static Double parseNumber(SpecAttribute attribute, String value) {
+        Matcher matcher = NUMBER.matcher(TextNormalizer.fold(value));
+        if (!matcher.find()) {
+            return null;
+        }
+        String digits = matcher.group(1);
+        double number = digits.matches("\\d{1,3}(?:[.,]\\d{3})+")
+                ? Double.parseDouble(digits.replaceAll("[.,]", ""))
+                : Double.parseDouble(digits.replace(',', '.'));
+
+        String unit = matcher.group(2);
+        if (attribute == SpecAttribute.RAM || attribute == SpecAttribute.STORAGE) {
+            if (unit.startsWith("tb")) {
+                number *= 1024;
+            } else if (unit.startsWith("mb")) {
+                number /= 1024;
+            }
+        }
+        return number;
+    }
+
+    /**
+     * Một dòng thông số; name là tên đã bỏ dấu để so khớp giữa các sản phẩm
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private final String name;
+        private final String label;
+        private final String value;
+        private final SpecAttribute attribute; // null nếu không nhận diện được
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class ParsedSpecs {
+        static final ParsedSpecs EMPTY = new ParsedSpecs(List.of(), Map.of(), Map.of());
+
+        private final List<Line> lines;
+        private final Map<SpecAttribute, Double> numbers;
+        private final Map<SpecAttribute, String> texts; // đã bỏ dấu, chữ thường
+    }
+}
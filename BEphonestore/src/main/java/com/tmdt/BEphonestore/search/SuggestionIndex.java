@@ -0,0 +1,294 @@
+package com.tmdt.BEphonestore.search;
+
+import com.tmdt.BEphonestore.dto.response.SuggestionResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.event.CategoryChangedEvent;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.OrderItemRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trie tiền tố cho gợi ý tìm kiếm (tên sản phẩm và tên hãng).
+ * Mỗi node lưu sẵn top-K kết quả theo độ phổ biến (số lượng đã bán)
+ * nên một truy vấn chỉ là đi theo các ký tự của tiền tố.
+ * Đọc không cần khóa; ghi được tuần tự hóa.
+ */
+@Component
+public class SuggestionIndex implements ProductIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    // Giới hạn độ sâu của trie, tiền tố dài hơn vẫn tìm theo MAX_KEY_LENGTH ký tự đầu
+    private static final int MAX_KEY_LENGTH = 40;
+
+    private static final Comparator<Entry> RANKING = Comparator
+            .comparingLong((Entry e) -> e.score).reversed()
+            .thenComparingInt(e -> e.text.length())
+            .thenComparing(e -> e.text);
+
+    private final CategoryRepository categoryRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    private volatile Node root = new Node();
+    private Map<Long, Entry> productEntries = new HashMap<>();
+    private Map<Long, Entry> categoryEntries = new HashMap<>();
+    private Map<Long, Long> productSales = new HashMap<>();
+
+    public SuggestionIndex(CategoryRepository categoryRepository, OrderItemRepository orderItemRepository) {
+        this.categoryRepository = categoryRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    /**
+     * Tối đa {@code limit} gợi ý cho tiền tố (giới hạn trong [1, MAX_SUGGESTIONS])
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Node node = root;
+        for (int i = 0; i < Math.min(key.length(), MAX_KEY_LENGTH) && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return new ArrayList<>();
+        }
+
+        Entry[] top = node.top;
+        int n = Math.min(Math.max(1, Math.min(limit, MAX_SUGGESTIONS)), top.length);
+        List<SuggestionResponse> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(SuggestionResponse.builder()
+                    .type(top[i].type)
+                    .id(top[i].id)
+                    .text(top[i].text)
+                    .build());
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void index(Product product) {
+        boolean suggestable = product.getStatus() == ProductStatus.ACTIVE && product.getName() != null;
+        Entry current = productEntries.get(product.getId());
+        // Tên và trạng thái không đổi (vd. STOCK_CHANGED sau mỗi đơn hàng): trie giữ nguyên
+        boolean unchanged = current == null
+                ? !suggestable
+                : suggestable && current.text.equals(product.getName());
+        if (unchanged) {
+            return;
+        }
+
+        Entry old = productEntries.remove(product.getId());
+        if (old != null) {
+            remove(root, old);
+        }
+        if (suggestable) {
+            Entry entry = new Entry("PRODUCT", product.getId(), product.getName(),
+                    productSales.getOrDefault(product.getId(), 0L));
+            productEntries.put(product.getId(), entry);
+            insert(root, entry);
+        }
+    }
+
+    @Override
+    public synchronized void remove(Long productId) {
+        Entry old = productEntries.remove(productId);
+        if (old != null) {
+            remove(root, old);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        Entry old = categoryEntries.remove(event.getCategoryId());
+        if (old != null) {
+            remove(root, old);
+        }
+        Category category = event.getCategory();
+        if (category != null && category.getName() != null) {
+            Entry entry = new Entry("CATEGORY", category.getId(), category.getName(),
+                    old != null ? old.score : 0L);
+            categoryEntries.put(category.getId(), entry);
+            insert(root, entry);
+        }
+    }
+
+    @Override
+    public Rebuild beginRebuild() {
+        Map<Long, Long> sales = new HashMap<>();
+        for (Object[] row : orderItemRepository.sumSoldQuantityByProduct(OrderStatus.CANCELLED)) {
+            sales.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        Node freshRoot = new Node();
+        Map<Long, Entry> freshProducts = new HashMap<>();
+        Map<Long, Long> categorySales = new HashMap<>();
+
+        return new Rebuild() {
+            @Override
+            public void add(Product product) {
+                long sold = sales.getOrDefault(product.getId(), 0L);
+                if (product.getCategory() != null) {
+                    categorySales.merge(product.getCategory().getId(), sold, Long::sum);
+                }
+                if (product.getStatus() == ProductStatus.ACTIVE && product.getName() != null) {
+                    Entry entry = new Entry("PRODUCT", product.getId(), product.getName(), sold);
+                    freshProducts.put(product.getId(), entry);
+                    insert(freshRoot, entry);
+                }
+            }
+
+            @Override
+            public void finish() {
+                Map<Long, Entry> freshCategories = new HashMap<>();
+                for (Category category : categoryRepository.findAll()) {
+                    if (category.getName() == null) {
+                        continue;
+                    }
+                    Entry entry = new Entry("CATEGORY", category.getId(), category.getName(),
+                            categorySales.getOrDefault(category.getId(), 0L));
+                    freshCategories.put(category.getId(), entry);
+                    insert(freshRoot, entry);
+                }
+
+                synchronized (SuggestionIndex.this) {
+                    productSales = sales;
+                    productEntries = freshProducts;
+                    categoryEntries = freshCategories;
+                    root = freshRoot;
+                }
+            }
+        };
+    }
+
+    /**
+     * Chuẩn hóa về dạng khóa của trie: bỏ dấu, chữ thường, các từ cách nhau một khoảng trắng
+     */
+    private static String normalize(String text) {
+        return String.join(" ", TextNormalizer.tokenize(text));
+    }
+
+    /**
+     * Mỗi entry được chèn tại mọi vị trí bắt đầu từ để "pro" khớp "iPhone 15 Pro"
+     */
+    private static List<String> keysOf(Entry entry) {
+        String normalized = normalize(entry.text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                String key = normalized.substring(i);
+                keys.add(key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key);
+            }
+        }
+        return keys;
+    }
+
+    private static void insert(Node root, Entry entry) {
+        for (String key : keysOf(entry)) {
+            Node node = root;
+            node.top = merge(node.top, entry);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                node.top = merge(node.top, entry);
+            }
+            node.terminals.add(entry);
+        }
+    }
+
+    private static void remove(Node root, Entry entry) {
+        for (String key : keysOf(entry)) {
+            Node[] path = new Node[key.length() + 1];
+            path[0] = root;
+            for (int i = 0; i < key.length() && path[i] != null; i++) {
+                path[i + 1] = path[i].children.get(key.charAt(i));
+            }
+            Node leaf = path[key.length()];
+            if (leaf == null) {
+                continue;
+            }
+            leaf.terminals.removeIf(e -> e.sameTarget(entry));
+
+            // Tính lại top-K từ dưới lên: top của một node nằm trong
+            // hợp của các entry kết thúc tại node và top của các node con
+            for (int i = key.length(); i >= 0; i--) {
+                Node node = path[i];
+                node.top = recompute(node);
+                if (i > 0 && node.top.length == 0 && node.children.isEmpty()) {
+                    path[i - 1].children.remove(key.charAt(i - 1));
+                }
+            }
+        }
+    }
+
+    private static Entry[] merge(Entry[] top, Entry entry) {
+        List<Entry> candidates = new ArrayList<>(top.length + 1);
+        for (Entry e : top) {
+            if (!e.sameTarget(entry)) {
+                candidates.add(e);
+            }
+        }
+        candidates.add(entry);
+        return topK(candidates);
+    }
+
+    private static Entry[] recompute(Node node) {
+        List<Entry> candidates = new ArrayList<>(node.terminals);
+        for (Node child : node.children.values()) {
+            for (Entry e : child.top) {
+                if (candidates.stream().noneMatch(c -> c.sameTarget(e))) {
+                    candidates.add(e);
+                }
+            }
+        }
+        return topK(candidates);
+    }
+
+    private static Entry[] topK(List<Entry> candidates) {
+        candidates.sort(RANKING);
+        int n = Math.min(candidates.size(), MAX_SUGGESTIONS);
+        return candidates.subList(0, n).toArray(new Entry[0]);
+    }
+
+    private static class Node {
+        final Map<Character, Node> children = new ConcurrentHashMap<>(4);
+        final List<Entry> terminals = new ArrayList<>(1);
+        volatile Entry[] top = new Entry[0];
+    }
+
+    private static class Entry {
+        final String type;
+        final Long id;
+        final String text;
+        final long score;
+
+        Entry(String type, Long id, String text, long score) {
+            this.type = type;
+            this.id = id;
+            this.text = text;
+            this.score = score;
+        }
+
+        boolean sameTarget(Entry other) {
+            return type.equals(other.type) && id.equals(other.id);
+        }
+
+        @Override
+        public String toString() {
+            return type + ":" + id + ":" + text;
+        }
+    }
+}
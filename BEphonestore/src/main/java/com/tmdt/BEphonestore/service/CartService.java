@@ -1,7 +1,9 @@
 package com.tmdt.BEphonestore.service;
 
+import com.tmdt.BEphonestore.dto.request.CartBatchRequest;
 import com.tmdt.BEphonestore.dto.request.CartItemRequest;
 import com.tmdt.BEphonestore.dto.response.CartResponse;
+import com.tmdt.BEphonestore.dto.response.GuestCartResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
 
 public interface CartService {
@@ -11,6 +13,23 @@ public interface CartService {
 
     CartResponse updateCartItem(Long itemId, Integer quantity);
 
+    /**
+     * Áp dụng nhiều thao tác add/set/remove trong một lần, trả về giỏ sau khi cập nhật
+     */
+    CartResponse updateCart(CartBatchRequest request);
+
+    /**
+     * Giỏ của khách chưa đăng nhập, lưu trong token ở client
+     */
+    GuestCartResponse getGuestCart(String token);
+
+    GuestCartResponse updateGuestCart(String token, CartBatchRequest request);
+
+    /**
+     * Gộp giỏ của khách vào giỏ đã lưu của user (khi đăng nhập)
+     */
+    void mergeGuestCart(Long userId, String token);
+
     MessageResponse removeFromCart(Long itemId);
 
     MessageResponse clearCart();
@@ -2,6 +2,9 @@ package com.tmdt.BEphonestore.service;
 
 import com.tmdt.BEphonestore.entity.Order;
 
+/**
+ * Gửi mail cho khách; lỗi gửi được ném ra (MailException) để outbox thử lại
+ */
 public interface EmailService {
     void sendOrderConfirmationEmail(String to, Order order);
 
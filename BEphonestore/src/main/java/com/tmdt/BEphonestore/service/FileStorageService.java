@@ -5,5 +5,10 @@ import org.springframework.web.multipart.MultipartFile;
 public interface FileStorageService {
     String storeFile(MultipartFile file);
 
+    /**
+     * Lưu ảnh từ nội dung đã đọc sẵn (vd. một entry trong file zip), đuôi file lấy từ tên gốc
+     */
+    String storeFile(String originalFileName, byte[] content);
+
     void deleteFile(String fileName);
 }
\ No newline at end of file
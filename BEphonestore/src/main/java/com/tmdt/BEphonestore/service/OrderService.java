@@ -2,10 +2,12 @@ package com.tmdt.BEphonestore.service;
 
 import com.tmdt.BEphonestore.dto.request.OrderRequest;
 import com.tmdt.BEphonestore.dto.request.UpdateOrderStatusRequest;
+import com.tmdt.BEphonestore.dto.response.CursorPageResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
 import com.tmdt.BEphonestore.dto.response.OrderDetailResponse;
 import com.tmdt.BEphonestore.dto.response.OrderResponse;
 import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.order.OrderPlacement;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -14,8 +16,22 @@ import java.util.List;
 public interface OrderService {
     OrderDetailResponse createOrder(OrderRequest request);
 
+    /**
+     * Đặt hàng từ giỏ của một user cụ thể (không cần SecurityContext, dùng cho hàng đợi đặt hàng).
+     * orderCode lấy từ OrderCodeAllocator trước khi mở transaction
+     */
+    OrderDetailResponse placeOrder(Long userId, OrderRequest request, String orderCode);
+
+    /**
+     * Tạo nhiều đơn trong một transaction; tồn kho của cả lô được trừ một lần theo thứ tự id sản phẩm.
+     * Một đơn lỗi thì cả lô rollback
+     */
+    List<OrderDetailResponse> placeOrders(List<OrderPlacement> placements);
+
     Page<OrderResponse> getMyOrders(Pageable pageable);
 
+    CursorPageResponse<OrderResponse> getMyOrdersAfter(String cursor, int size);
+
     Page<OrderResponse> getMyOrdersByStatus(OrderStatus status, Pageable pageable);
 
     OrderDetailResponse getOrderById(Long id);
@@ -27,6 +43,8 @@ public interface OrderService {
     // Admin methods
     Page<OrderResponse> getAllOrders(Pageable pageable);
 
+    CursorPageResponse<OrderResponse> getAllOrdersAfter(String cursor, int size);
+
     Page<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable);
 
     Page<OrderResponse> searchOrders(String keyword, Pageable pageable);
@@ -0,0 +1,14 @@
+package com.tmdt.BEphonestore.service;
+
+import com.tmdt.BEphonestore.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface ProductExportService {
+    /**
+     * Ghi toàn bộ sản phẩm (hoặc chỉ các sản phẩm cập nhật từ since) ra luồng, từng dòng một
+     */
+    long exportProducts(ExportFormat format, LocalDateTime since, OutputStream out) throws IOException;
+}
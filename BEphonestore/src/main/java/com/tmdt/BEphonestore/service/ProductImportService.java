@@ -0,0 +1,13 @@
+package com.tmdt.BEphonestore.service;
+
+import com.tmdt.BEphonestore.dto.response.ProductImportResponse;
+import com.tmdt.BEphonestore.enums.ExportFormat;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface ProductImportService {
+    /**
+     * Nhập sản phẩm hàng loạt từ CSV/NDJSON (cùng cột với file xuất), kèm file zip ảnh tùy chọn.
+     * Dòng có id thì cập nhật, không có id thì tạo mới; dòng lỗi được bỏ qua và báo lại
+     */
+    ProductImportResponse importProducts(MultipartFile file, ExportFormat format, MultipartFile images);
+}
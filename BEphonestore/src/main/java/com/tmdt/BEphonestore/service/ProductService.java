@@ -1,26 +1,51 @@
 package com.tmdt.BEphonestore.service;
 
+import com.tmdt.BEphonestore.dto.request.ProductFilterRequest;
 import com.tmdt.BEphonestore.dto.request.ProductRequest;
+import com.tmdt.BEphonestore.dto.response.CursorPageResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
+import com.tmdt.BEphonestore.dto.response.ProductBatchResponse;
+import com.tmdt.BEphonestore.dto.response.ProductComparisonResponse;
+import com.tmdt.BEphonestore.dto.response.ProductFacetResponse;
 import com.tmdt.BEphonestore.dto.response.ProductResponse;
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
+import com.tmdt.BEphonestore.dto.response.SuggestionResponse;
+import com.tmdt.BEphonestore.enums.BestSellerWindow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface ProductService {
     Page<ProductResponse> getAllProducts(Pageable pageable);
 
-    Page<ProductResponse> getActiveProducts(Pageable pageable);
+    Page<ProductSummaryResponse> getActiveProducts(Pageable pageable);
+
+    CursorPageResponse<ProductSummaryResponse> getActiveProductsAfter(String cursor, int size, boolean ascending);
 
     ProductResponse getProductById(Long id);
 
-    Page<ProductResponse> searchProducts(String keyword, Pageable pageable);
+    ProductBatchResponse getProductsByIds(List<Long> ids);
+
+    ProductComparisonResponse compareProducts(List<Long> ids);
+
+    Page<ProductSummaryResponse> searchProducts(String keyword, Pageable pageable);
+
+    List<SuggestionResponse> suggest(String prefix, int limit);
+
+    Page<ProductSummaryResponse> getProductsByCategory(Long categoryId, Pageable pageable);
+
+    Page<ProductSummaryResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+
+    ProductFacetResponse filterProducts(ProductFilterRequest filter, Pageable pageable);
+
+    List<ProductSummaryResponse> getRelatedProducts(Long id, int limit);
 
-    Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable);
+    List<ProductSummaryResponse> getNewArrivals(int limit);
 
-    Page<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+    List<ProductSummaryResponse> getBestSellers(BestSellerWindow window, int limit);
 
     ProductResponse createProduct(ProductRequest request, MultipartFile image);
 
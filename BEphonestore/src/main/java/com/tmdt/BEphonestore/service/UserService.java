@@ -2,6 +2,7 @@ package com.tmdt.BEphonestore.service;
 
 import com.tmdt.BEphonestore.dto.request.ChangePasswordRequest;
 import com.tmdt.BEphonestore.dto.request.UpdateProfileRequest;
+import com.tmdt.BEphonestore.dto.response.CursorPageResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
 import com.tmdt.BEphonestore.dto.response.UserResponse;
 import org.springframework.data.domain.Page;
@@ -18,6 +19,8 @@ public interface UserService {
 
     Page<UserResponse> getAllUsers(Pageable pageable);
 
+    CursorPageResponse<UserResponse> getAllUsersAfter(String cursor, int size);
+
     Page<UserResponse> searchUsers(String keyword, Pageable pageable);
 
     MessageResponse updateUserStatus(Long id, String status);
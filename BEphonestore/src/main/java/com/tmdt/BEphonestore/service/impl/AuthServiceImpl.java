@@ -4,15 +4,15 @@ import com.tmdt.BEphonestore.dto.request.LoginRequest;
 import com.tmdt.BEphonestore.dto.request.RegisterRequest;
 import com.tmdt.BEphonestore.dto.response.JwtResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
-import com.tmdt.BEphonestore.entity.Cart;
 import com.tmdt.BEphonestore.entity.User;
 import com.tmdt.BEphonestore.enums.UserRole;
 import com.tmdt.BEphonestore.enums.UserStatus;
 import com.tmdt.BEphonestore.exception.BadRequestException;
-import com.tmdt.BEphonestore.repository.CartRepository;
 import com.tmdt.BEphonestore.repository.UserRepository;
 import com.tmdt.BEphonestore.security.JwtTokenProvider;
 import com.tmdt.BEphonestore.service.AuthService;
+import com.tmdt.BEphonestore.service.CartService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -25,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Auth Service Implementation
  */
+@Slf4j
 @Service
 public class AuthServiceImpl implements AuthService {
 
@@ -35,7 +36,7 @@ public class AuthServiceImpl implements AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private CartRepository cartRepository;
+    private CartService cartService;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -57,6 +58,15 @@ public class AuthServiceImpl implements AuthService {
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new BadRequestException("User not found"));
 
+        if (request.getGuestCart() != null) {
+            try {
+                cartService.mergeGuestCart(user.getId(), request.getGuestCart());
+            } catch (BadRequestException ex) {
+                // Token giỏ khách không hợp lệ không làm hỏng đăng nhập
+                log.warn("Could not merge guest cart for user {}: {}", user.getId(), ex.getMessage());
+            }
+        }
+
         return JwtResponse.builder()
                 .token(jwt)
                 .type("Bearer")
@@ -93,14 +103,9 @@ public class AuthServiceImpl implements AuthService {
                 .status(UserStatus.ACTIVE)
                 .build();
 
+        // Giỏ hàng được tạo khi user thêm sản phẩm lần đầu
         userRepository.save(user);
 
-        // Create cart for user
-        Cart cart = Cart.builder()
-                .user(user)
-                .build();
-        cartRepository.save(cart);
-
         return new MessageResponse("User registered successfully");
     }
 
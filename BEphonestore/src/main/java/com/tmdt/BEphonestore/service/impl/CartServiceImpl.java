@@ -1,17 +1,25 @@
 package com.tmdt.BEphonestore.service.impl;
 
+import com.tmdt.BEphonestore.cache.ProductCache;
+import com.tmdt.BEphonestore.cart.CartLine;
+import com.tmdt.BEphonestore.cart.CartStore;
+import com.tmdt.BEphonestore.cart.GuestCartCodec;
+import com.tmdt.BEphonestore.cart.StoredCart;
+import com.tmdt.BEphonestore.dto.request.CartBatchRequest;
 import com.tmdt.BEphonestore.dto.request.CartItemRequest;
+import com.tmdt.BEphonestore.dto.request.CartOperationRequest;
 import com.tmdt.BEphonestore.dto.response.CartItemResponse;
 import com.tmdt.BEphonestore.dto.response.CartResponse;
+import com.tmdt.BEphonestore.dto.response.GuestCartResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
-import com.tmdt.BEphonestore.entity.Cart;
-import com.tmdt.BEphonestore.entity.CartItem;
+import com.tmdt.BEphonestore.dto.response.ProductResponse;
 import com.tmdt.BEphonestore.entity.Product;
 import com.tmdt.BEphonestore.entity.User;
+import com.tmdt.BEphonestore.enums.CartOperationType;
+import com.tmdt.BEphonestore.enums.ProductStatus;
 import com.tmdt.BEphonestore.exception.BadRequestException;
 import com.tmdt.BEphonestore.exception.ResourceNotFoundException;
-import com.tmdt.BEphonestore.repository.CartItemRepository;
-import com.tmdt.BEphonestore.repository.CartRepository;
+import com.tmdt.BEphonestore.mapper.ProductMapper;
 import com.tmdt.BEphonestore.repository.ProductRepository;
 import com.tmdt.BEphonestore.repository.UserRepository;
 import com.tmdt.BEphonestore.service.CartService;
@@ -19,30 +27,42 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Cart Service Implementation
+ * Cart Service Implementation.
+ * Dữ liệu giỏ nằm trong {@link CartStore}; sản phẩm được kiểm tra qua ProductCache.
  */
 @Service
 public class CartServiceImpl implements CartService {
 
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private ProductRepository productRepository;
 
     @Autowired
-    private ProductRepository productRepository;
+    private ProductMapper productMapper;
+
+    @Autowired
+    private ProductCache productCache;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private GuestCartCodec guestCartCodec;
+
     private User getCurrentUser() {
         UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext()
                 .getAuthentication().getPrincipal();
@@ -51,164 +71,258 @@ public class CartServiceImpl implements CartService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
     }
 
-    private Cart getOrCreateCart(User user) {
-        return cartRepository.findByUserId(user.getId())
-                .orElseGet(() -> {
-                    Cart newCart = Cart.builder()
-                            .user(user)
-                            .build();
-                    return cartRepository.save(newCart);
-                });
+    private ProductResponse findProduct(Long productId) {
+        ProductResponse product = productCache.get(productId,
+                id -> productRepository.findAllWithCategoryByIdIn(List.of(id)).stream()
+                        .findFirst()
+                        .map(productMapper::toResponse)
+                        .orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        return product;
+    }
+
+    /**
+     * Nạp nhiều sản phẩm một lần; các id chưa có trong cache dùng chung một truy vấn
+     */
+    private Map<Long, ProductResponse> findProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productCache.getAll(productIds,
+                missing -> productRepository.findAllWithCategoryByIdIn(new ArrayList<>(missing)).stream()
+                        .collect(Collectors.toMap(Product::getId, productMapper::toResponse)));
     }
 
     @Override
     public CartResponse getMyCart() {
         User user = getCurrentUser();
-        Cart cart = getOrCreateCart(user);
-
-        return mapToCartResponse(cart);
+        return mapToCartResponse(user.getId(), cartStore.load(user.getId()));
     }
 
     @Override
-    @Transactional
     public CartResponse addToCart(CartItemRequest request) {
         User user = getCurrentUser();
-        Cart cart = getOrCreateCart(user);
-
-        Product product = productRepository.findById(request.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", request.getProductId()));
+        ProductResponse product = findProduct(request.getProductId());
 
         // Check if product is active
-        if (!product.getStatus().name().equals("ACTIVE")) {
+        if (product.getStatus() != ProductStatus.ACTIVE) {
             throw new BadRequestException("Product is not available");
         }
 
+        // Check stock, kể cả số lượng đã có trong giỏ; đọc - cộng - ghi nguyên tử để hai request không ghi đè nhau
+        cartStore.update(user.getId(), quantities -> {
+            int newQuantity = quantities.getOrDefault(product.getId(), 0) + request.getQuantity();
+            if (product.getStock() < newQuantity) {
+                throw new BadRequestException("Insufficient stock. Available: " + product.getStock());
+            }
+            quantities.put(product.getId(), newQuantity);
+        });
+        return mapToCartResponse(user.getId(), cartStore.load(user.getId()));
+    }
+
+    @Override
+    public CartResponse updateCartItem(Long itemId, Integer quantity) {
+        User user = getCurrentUser();
+        Long productId = findProductIdOfItem(user.getId(), itemId);
+
+        if (quantity <= 0) {
+            throw new BadRequestException("Quantity must be greater than 0");
+        }
+
         // Check stock
-        if (product.getStock() < request.getQuantity()) {
+        ProductResponse product = findProduct(productId);
+        if (product.getStock() < quantity) {
             throw new BadRequestException("Insufficient stock. Available: " + product.getStock());
         }
 
-        // Check if product already in cart
-        CartItem existingItem = cartItemRepository
-                .findByCartIdAndProductId(cart.getId(), product.getId())
-                .orElse(null);
+        cartStore.setQuantity(user.getId(), productId, quantity);
+        return mapToCartResponse(user.getId(), cartStore.load(user.getId()));
+    }
 
-        if (existingItem != null) {
-            // Update quantity
-            int newQuantity = existingItem.getQuantity() + request.getQuantity();
+    @Override
+    public CartResponse updateCart(CartBatchRequest request) {
+        User user = getCurrentUser();
+        Map<Long, ProductResponse> products = findProductsFor(request.getOperations());
 
-            if (product.getStock() < newQuantity) {
-                throw new BadRequestException("Insufficient stock. Available: " + product.getStock());
-            }
+        cartStore.update(user.getId(), quantities -> applyOperations(request.getOperations(), products, quantities));
 
-            existingItem.setQuantity(newQuantity);
-            cartItemRepository.save(existingItem);
-        } else {
-            // Add new item
-            CartItem newItem = CartItem.builder()
-                    .cart(cart)
-                    .product(product)
-                    .quantity(request.getQuantity())
-                    .build();
-
-            cartItemRepository.save(newItem);
-        }
+        return mapToCartResponse(user.getId(), cartStore.load(user.getId()));
+    }
 
-        return mapToCartResponse(cart);
+    @Override
+    public GuestCartResponse getGuestCart(String token) {
+        Map<Long, Integer> quantities = guestCartCodec.decode(token);
+        return new GuestCartResponse(token, mapToGuestCartResponse(quantities));
     }
 
     @Override
-    @Transactional
-    public CartResponse updateCartItem(Long itemId, Integer quantity) {
-        User user = getCurrentUser();
+    public GuestCartResponse updateGuestCart(String token, CartBatchRequest request) {
+        Map<Long, Integer> quantities = guestCartCodec.decode(token);
+        Map<Long, ProductResponse> products = findProductsFor(request.getOperations());
 
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart Item", "id", itemId));
+        applyOperations(request.getOperations(), products, quantities);
+        quantities.values().removeIf(quantity -> quantity <= 0);
 
-        // Verify item belongs to user's cart
-        if (!cartItem.getCart().getUser().getId().equals(user.getId())) {
-            throw new BadRequestException("Cart item does not belong to you");
+        return new GuestCartResponse(guestCartCodec.encode(quantities), mapToGuestCartResponse(quantities));
+    }
+
+    @Override
+    public void mergeGuestCart(Long userId, String token) {
+        Map<Long, Integer> guest = guestCartCodec.decode(token);
+        if (guest.isEmpty()) {
+            return;
         }
+        Map<Long, ProductResponse> products = findProducts(guest.keySet());
 
-        if (quantity <= 0) {
-            throw new BadRequestException("Quantity must be greater than 0");
+        // Cộng dồn vào giỏ đã lưu trong một lần cập nhật; bỏ qua sản phẩm ngừng bán, giới hạn theo tồn kho
+        cartStore.update(userId, quantities -> guest.forEach((productId, quantity) -> {
+            ProductResponse product = products.get(productId);
+            if (product == null || product.getStatus() != ProductStatus.ACTIVE) {
+                return;
+            }
+            int existing = quantities.getOrDefault(productId, 0);
+            int merged = Math.min(existing + quantity, product.getStock());
+            if (merged > existing) {
+                quantities.put(productId, merged);
+            }
+        }));
+    }
+
+    /**
+     * Kiểm tra số lượng của các thao tác rồi nạp các sản phẩm được tham chiếu trong một lần
+     */
+    private Map<Long, ProductResponse> findProductsFor(List<CartOperationRequest> operations) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (CartOperationRequest operation : operations) {
+            if (operation.getOp() == CartOperationType.REMOVE) {
+                continue;
+            }
+            if (operation.getQuantity() == null) {
+                throw new BadRequestException("Quantity is required for " + operation.getOp());
+            }
+            if (operation.getOp() == CartOperationType.ADD && operation.getQuantity() < 1) {
+                throw new BadRequestException("Quantity must be at least 1");
+            }
+            productIds.add(operation.getProductId());
         }
+        return findProducts(productIds);
+    }
 
-        // Check stock
-        if (cartItem.getProduct().getStock() < quantity) {
-            throw new BadRequestException("Insufficient stock. Available: " + cartItem.getProduct().getStock());
+    /**
+     * Áp dụng các thao tác theo thứ tự lên bản đồ productId -> số lượng, rồi kiểm tra tồn kho
+     * một lượt cho các dòng có thay đổi
+     */
+    private static void applyOperations(List<CartOperationRequest> operations,
+            Map<Long, ProductResponse> products, Map<Long, Integer> quantities) {
+        Map<Long, Integer> before = new HashMap<>(quantities);
+        for (CartOperationRequest operation : operations) {
+            Long productId = operation.getProductId();
+            switch (operation.getOp()) {
+                case ADD -> {
+                    if (requireProduct(products, productId).getStatus() != ProductStatus.ACTIVE) {
+                        throw new BadRequestException("Product is not available");
+                    }
+                    quantities.merge(productId, operation.getQuantity(), Integer::sum);
+                }
+                case SET -> {
+                    ProductResponse product = requireProduct(products, productId);
+                    // SET 0 (xóa dòng) vẫn được với sản phẩm đã ngừng bán
+                    if (operation.getQuantity() > 0 && product.getStatus() != ProductStatus.ACTIVE) {
+                        throw new BadRequestException("Product is not available");
+                    }
+                    quantities.put(productId, operation.getQuantity());
+                }
+                case REMOVE -> quantities.remove(productId);
+            }
         }
 
-        cartItem.setQuantity(quantity);
-        cartItemRepository.save(cartItem);
+        quantities.forEach((productId, quantity) -> {
+            if (quantity > 0 && !quantity.equals(before.get(productId))) {
+                ProductResponse product = requireProduct(products, productId);
+                if (product.getStock() < quantity) {
+                    throw new BadRequestException("Insufficient stock for " + product.getName()
+                            + ". Available: " + product.getStock());
+                }
+            }
+        });
+    }
 
-        return mapToCartResponse(cartItem.getCart());
+    private static ProductResponse requireProduct(Map<Long, ProductResponse> products, Long productId) {
+        ProductResponse product = products.get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        return product;
     }
 
     @Override
-    @Transactional
     public MessageResponse removeFromCart(Long itemId) {
         User user = getCurrentUser();
+        Long productId = findProductIdOfItem(user.getId(), itemId);
 
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart Item", "id", itemId));
-
-        // Verify item belongs to user's cart
-        if (!cartItem.getCart().getUser().getId().equals(user.getId())) {
-            throw new BadRequestException("Cart item does not belong to you");
-        }
-
-        cartItemRepository.delete(cartItem);
+        cartStore.setQuantity(user.getId(), productId, 0);
         return new MessageResponse("Item removed from cart");
     }
 
     @Override
-    @Transactional
     public MessageResponse clearCart() {
         User user = getCurrentUser();
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-
-        cartItemRepository.deleteByCartId(cart.getId());
+        cartStore.clear(user.getId());
         return new MessageResponse("Cart cleared successfully");
     }
 
-    private CartResponse mapToCartResponse(Cart cart) {
-        List<CartItem> items = cartItemRepository.findByCartId(cart.getId());
-
-        List<CartItemResponse> itemResponses = items.stream()
-                .map(this::mapToCartItemResponse)
-                .collect(Collectors.toList());
+    private Long findProductIdOfItem(Long userId, Long itemId) {
+        Long productId = cartStore.findProductId(userId, itemId);
+        if (productId == null) {
+            throw new ResourceNotFoundException("Cart Item", "id", itemId);
+        }
+        return productId;
+    }
 
-        BigDecimal totalAmount = itemResponses.stream()
-                .map(CartItemResponse::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Giỏ của khách: id dòng là id sản phẩm, sản phẩm đã bị xóa thì không hiển thị
+     */
+    private CartResponse mapToGuestCartResponse(Map<Long, Integer> quantities) {
+        Map<Long, ProductResponse> products = findProducts(quantities.keySet());
+        List<CartLine> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            ProductResponse product = products.get(productId);
+            if (product != null) {
+                lines.add(new CartLine(productId, productId, quantity,
+                        product.getName(), product.getImageUrl(), product.getPrice()));
+            }
+        });
+        return mapToCartResponse(null, new StoredCart(null, lines));
+    }
 
-        int totalItems = itemResponses.stream()
-                .mapToInt(CartItemResponse::getQuantity)
-                .sum();
+    private CartResponse mapToCartResponse(Long userId, StoredCart cart) {
+        List<CartItemResponse> itemResponses = new ArrayList<>(cart.getLines().size());
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        int totalItems = 0;
+
+        for (CartLine line : cart.getLines()) {
+            BigDecimal subtotal = line.getProductPrice().multiply(BigDecimal.valueOf(line.getQuantity()));
+            itemResponses.add(CartItemResponse.builder()
+                    .id(line.getId())
+                    .productId(line.getProductId())
+                    .productName(line.getProductName())
+                    .productImage(line.getProductImage())
+                    .productPrice(line.getProductPrice())
+                    .quantity(line.getQuantity())
+                    .subtotal(subtotal)
+                    .build());
+            totalAmount = totalAmount.add(subtotal);
+            totalItems += line.getQuantity();
+        }
 
         return CartResponse.builder()
-                .id(cart.getId())
-                .userId(cart.getUser().getId())
+                .id(cart.getCartId())
+                .userId(userId)
                 .items(itemResponses)
                 .totalItems(totalItems)
                 .totalAmount(totalAmount)
                 .build();
     }
-
-    private CartItemResponse mapToCartItemResponse(CartItem item) {
-        Product product = item.getProduct();
-        BigDecimal subtotal = product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-
-        return CartItemResponse.builder()
-                .id(item.getId())
-                .productId(product.getId())
-                .productName(product.getName())
-                .productImage(product.getImageUrl())
-                .productPrice(product.getPrice())
-                .quantity(item.getQuantity())
-                .subtotal(subtotal)
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -1,22 +1,25 @@
 package com.tmdt.BEphonestore.service.impl;
 
+import com.tmdt.BEphonestore.cache.CategorySnapshot;
 import com.tmdt.BEphonestore.dto.request.CategoryRequest;
 import com.tmdt.BEphonestore.dto.response.CategoryResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
 import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.event.CategoryChangedEvent;
 import com.tmdt.BEphonestore.exception.BadRequestException;
 import com.tmdt.BEphonestore.exception.ResourceNotFoundException;
+import com.tmdt.BEphonestore.mapper.CategoryMapper;
 import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
 import com.tmdt.BEphonestore.service.CategoryService;
 import com.tmdt.BEphonestore.service.FileStorageService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
@@ -24,33 +27,33 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategorySnapshot categorySnapshot;
+
     @Autowired
     private FileStorageService fileStorageService;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     @Override
     public List<CategoryResponse> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-
-        return categories.stream()
-                .map(category -> {
-                    CategoryResponse response = modelMapper.map(category, CategoryResponse.class);
-                    response.setProductCount(category.getProducts().size());
-                    return response;
-                })
-                .collect(Collectors.toList());
+        return categorySnapshot.getAll();
     }
 
     @Override
     public CategoryResponse getCategoryById(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
-
-        CategoryResponse response = modelMapper.map(category, CategoryResponse.class);
-        response.setProductCount(category.getProducts().size());
-        return response;
+        CategoryResponse category = categorySnapshot.get(id);
+        if (category == null) {
+            throw new ResourceNotFoundException("Category", "id", id);
+        }
+        return category;
     }
 
     @Override
@@ -76,10 +79,9 @@ public class CategoryServiceImpl implements CategoryService {
                 .build();
 
         Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.of(savedCategory, CategoryChangedEvent.ChangeType.CREATED));
 
-        CategoryResponse response = modelMapper.map(savedCategory, CategoryResponse.class);
-        response.setProductCount(0);
-        return response;
+        return categoryMapper.toResponse(savedCategory, 0);
     }
 
     @Override
@@ -113,10 +115,9 @@ public class CategoryServiceImpl implements CategoryService {
         category.setDescription(request.getDescription());
 
         Category updatedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.of(updatedCategory, CategoryChangedEvent.ChangeType.UPDATED));
 
-        CategoryResponse response = modelMapper.map(updatedCategory, CategoryResponse.class);
-        response.setProductCount(updatedCategory.getProducts().size());
-        return response;
+        return categoryMapper.toResponse(updatedCategory, (int) productRepository.countByCategoryId(id));
     }
 
     @Override
@@ -125,7 +126,7 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
 
-        if (!category.getProducts().isEmpty()) {
+        if (productRepository.existsByCategoryId(id)) {
             throw new BadRequestException("Cannot delete category with existing products");
         }
 
@@ -137,6 +138,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.delete(category);
+        eventPublisher.publishEvent(CategoryChangedEvent.of(category, CategoryChangedEvent.ChangeType.DELETED));
         return new MessageResponse("Category deleted successfully");
     }
 }
\ No newline at end of file
@@ -8,12 +8,14 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.io.UnsupportedEncodingException;
 import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -74,12 +76,12 @@ public class EmailServiceImpl implements EmailService {
                 }
             });
 
-            String htmlContent = templateEngine.process("order-confirmation", context);
+            String htmlContent = templateEngine.process("order-confirmation-email", context);
             helper.setText(htmlContent, true);
 
             mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Error sending order confirmation email: " + e.getMessage());
+        } catch (MessagingException | UnsupportedEncodingException e) {
+            throw new MailPreparationException("Could not build order confirmation email", e);
         }
     }
 
@@ -97,12 +99,12 @@ public class EmailServiceImpl implements EmailService {
             context.setVariable("order", order);
             context.setVariable("baseUrl", baseUrl);
 
-            String htmlContent = templateEngine.process("order-status-update", context);
+            String htmlContent = templateEngine.process("order-status-update-email", context);
             helper.setText(htmlContent, true);
 
             mailSender.send(message);
-        } catch (Exception e) {
-            System.err.println("Error sending order status update email: " + e.getMessage());
+        } catch (MessagingException | UnsupportedEncodingException e) {
+            throw new MailPreparationException("Could not build order status update email", e);
         }
     }
 }
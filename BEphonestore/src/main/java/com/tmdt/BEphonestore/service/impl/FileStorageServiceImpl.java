@@ -137,6 +137,35 @@ public class FileStorageServiceImpl implements FileStorageService {
         }
     }
 
+    @Override
+    public String storeFile(String originalFileName, byte[] content) {
+        if (content.length == 0) {
+            throw new BadRequestException("File is empty: " + originalFileName);
+        }
+        if (content.length > MAX_FILE_SIZE) {
+            throw new BadRequestException("File size exceeds maximum limit of 5MB: " + originalFileName);
+        }
+
+        int lastDotIndex = originalFileName.lastIndexOf(".");
+        String fileExtension = lastDotIndex > 0 ? originalFileName.substring(lastDotIndex + 1).toLowerCase() : "";
+        if (!ALLOWED_EXTENSIONS.contains(fileExtension)) {
+            throw new BadRequestException(
+                    "Invalid file type. Allowed types: " + String.join(", ", ALLOWED_EXTENSIONS) +
+                            ". Detected: " + fileExtension);
+        }
+        if (fileExtension.equals("jpeg") || fileExtension.equals("jfif")) {
+            fileExtension = "jpg";
+        }
+
+        String newFileName = UUID.randomUUID().toString() + "." + fileExtension;
+        try {
+            Files.write(this.fileStorageLocation.resolve(newFileName), content);
+            return newFileName;
+        } catch (IOException ex) {
+            throw new BadRequestException("Could not store file: " + ex.getMessage());
+        }
+    }
+
     @Override
     public void deleteFile(String fileName) {
         try {
@@ -1,29 +1,51 @@
 package com.tmdt.BEphonestore.service.impl;
 
+import com.tmdt.BEphonestore.cart.CartLine;
+import com.tmdt.BEphonestore.cart.CartStore;
 import com.tmdt.BEphonestore.dto.request.OrderRequest;
 import com.tmdt.BEphonestore.dto.request.UpdateOrderStatusRequest;
 import com.tmdt.BEphonestore.dto.response.*;
 import com.tmdt.BEphonestore.entity.*;
+import com.tmdt.BEphonestore.enums.OrderEventType;
 import com.tmdt.BEphonestore.enums.OrderStatus;
 import com.tmdt.BEphonestore.enums.PaymentMethod;
 import com.tmdt.BEphonestore.enums.PaymentStatus;
+import com.tmdt.BEphonestore.event.OrderStatusChangedEvent;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
 import com.tmdt.BEphonestore.exception.BadRequestException;
+import com.tmdt.BEphonestore.exception.InsufficientStockException;
+import com.tmdt.BEphonestore.inventory.StockReservationEngine;
 import com.tmdt.BEphonestore.exception.ResourceNotFoundException;
+import com.tmdt.BEphonestore.mapper.OrderMapper;
+import com.tmdt.BEphonestore.order.OrderCodeAllocator;
+import com.tmdt.BEphonestore.order.OrderOutbox;
+import com.tmdt.BEphonestore.order.OrderPlacement;
 import com.tmdt.BEphonestore.repository.*;
-import com.tmdt.BEphonestore.service.EmailService;
 import com.tmdt.BEphonestore.service.OrderService;
+import com.tmdt.BEphonestore.util.CursorUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,15 +58,25 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private OrderTrackingRepository orderTrackingRepository;
     @Autowired
-    private CartRepository cartRepository;
-    @Autowired
-    private CartItemRepository cartItemRepository;
+    private CartStore cartStore;
     @Autowired
     private ProductRepository productRepository;
     @Autowired
+    private StockReservationEngine stockReservationEngine;
+    @Autowired
+    private OrderCodeAllocator orderCodeAllocator;
+    @Autowired
     private UserRepository userRepository;
     @Autowired
-    private EmailService emailService;
+    private OrderOutbox orderOutbox;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private OrderMapper orderMapper;
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private User getCurrentUser() {
         UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext()
@@ -53,28 +85,81 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", userDetails.getUsername()));
     }
 
-    private String generateOrderCode() {
-        String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        Long count = orderRepository.count() + 1;
-        return String.format("ORD%s%03d", date, count);
+    @Override
+    public OrderDetailResponse createOrder(OrderRequest request) {
+        // Lấy mã trước mọi truy vấn của request (xem OrderCodeAllocator)
+        String orderCode = orderCodeAllocator.nextCode();
+        Long userId = getCurrentUser().getId();
+        return new TransactionTemplate(transactionManager).execute(status -> placeOrder(userId, request, orderCode));
     }
 
     @Override
     @Transactional
-    public OrderDetailResponse createOrder(OrderRequest request) {
-        User user = getCurrentUser();
+    public OrderDetailResponse placeOrder(Long userId, OrderRequest request, String orderCode) {
+        Checkout checkout = prepareCheckout(userId);
+        reserveStock(checkout.quantities, checkout.products);
+        return completeCheckout(checkout, request, orderCode);
+    }
 
-        Cart cart = cartRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        List<CartItem> cartItems = cartItemRepository.findByCartId(cart.getId());
+    @Override
+    @Transactional
+    public List<OrderDetailResponse> placeOrders(List<OrderPlacement> placements) {
+        List<Checkout> checkouts = new ArrayList<>(placements.size());
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (OrderPlacement placement : placements) {
+            Checkout checkout = prepareCheckout(placement.getUserId());
+            checkouts.add(checkout);
+            checkout.quantities.forEach((productId, quantity) -> quantities.merge(productId, quantity, Integer::sum));
+            products.putAll(checkout.products);
+        }
+        // Một lần trừ kho cho cả lô: khóa và UPDATE theo thứ tự id tăng dần như một đơn lẻ
+        reserveStock(quantities, products);
+
+        List<OrderDetailResponse> orders = new ArrayList<>(placements.size());
+        for (int i = 0; i < placements.size(); i++) {
+            OrderPlacement placement = placements.get(i);
+            orders.add(completeCheckout(checkouts.get(i), placement.getRequest(), placement.getOrderCode()));
+        }
+        return orders;
+    }
+
+    /**
+     * Giỏ, sản phẩm và tổng tiền của một đơn sắp tạo, chưa trừ kho
+     */
+    private static class Checkout {
+        User user;
+        List<CartLine> cartItems;
+        Map<Long, Product> products;
+        Map<Long, Integer> quantities;
+        BigDecimal totalPrice;
+    }
+
+    private Checkout prepareCheckout(Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+
+        List<CartLine> cartItems = cartStore.load(user.getId()).getLines();
 
         if (cartItems.isEmpty()) {
             throw new BadRequestException("Cart is empty");
         }
 
+        Map<Long, Product> products = productRepository.findAllById(
+                cartItems.stream().map(CartLine::getProductId).toList()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
         BigDecimal totalPrice = BigDecimal.ZERO;
-        for (CartItem cartItem : cartItems) {
-            Product product = cartItem.getProduct();
+        for (CartLine cartItem : cartItems) {
+            Product product = products.get(cartItem.getProductId());
+            if (product == null) {
+                // Sản phẩm đã bị xóa nhưng dòng giỏ chưa được dọn (vd. MemoryCartStore chưa flush)
+                String name = cartItem.getProductName() != null
+                        ? cartItem.getProductName()
+                        : "#" + cartItem.getProductId();
+                throw new BadRequestException("Product " + name
+                        + " is no longer available, please remove it from your cart");
+            }
             if (!product.getStatus().name().equals("ACTIVE")) {
                 throw new BadRequestException("Product " + product.getName() + " is not available");
             }
@@ -84,13 +169,40 @@ public class OrderServiceImpl implements OrderService {
             totalPrice = totalPrice.add(product.getPrice()
                     .multiply(BigDecimal.valueOf(cartItem.getQuantity())));
         }
+
+        Checkout checkout = new Checkout();
+        checkout.user = user;
+        checkout.cartItems = cartItems;
+        checkout.products = products;
+        checkout.quantities = new LinkedHashMap<>();
+        cartItems.forEach(line -> checkout.quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum));
+        checkout.totalPrice = totalPrice;
+        return checkout;
+    }
+
+    /**
+     * Kiểm tra trong prepareCheckout chỉ để báo lỗi sớm; trừ kho thật bằng UPDATE có điều kiện
+     */
+    private void reserveStock(Map<Long, Integer> quantities, Map<Long, Product> products) {
+        try {
+            stockReservationEngine.reserve(quantities);
+        } catch (InsufficientStockException ex) {
+            Product product = products.get(ex.getProductId());
+            throw new BadRequestException("Insufficient stock for "
+                    + (product != null ? product.getName() : "product #" + ex.getProductId()));
+        }
+        syncStock(products.values());
+    }
+
+    private OrderDetailResponse completeCheckout(Checkout checkout, OrderRequest request, String orderCode) {
+        User user = checkout.user;
         PaymentStatus paymentStatus = request.getPaymentMethod() == PaymentMethod.COD
                 ? PaymentStatus.UNPAID
                 : PaymentStatus.PAID;
         Order order = Order.builder()
-                .orderCode(generateOrderCode())
+                .orderCode(orderCode)
                 .user(user)
-                .totalPrice(totalPrice)
+                .totalPrice(checkout.totalPrice)
                 .status(OrderStatus.CONFIRMED)
                 .paymentMethod(request.getPaymentMethod())
                 .paymentStatus(paymentStatus)
@@ -101,9 +213,10 @@ public class OrderServiceImpl implements OrderService {
                 .build();
         Order savedOrder = orderRepository.save(order);
 
-        // Tạo OrderItem + trừ tồn kho
-        for (CartItem cartItem : cartItems) {
-            Product product = cartItem.getProduct();
+        // Tạo OrderItem (id lấy từ sequence nên các INSERT được gom thành một JDBC batch khi flush)
+        List<OrderItem> orderItems = new ArrayList<>(checkout.cartItems.size());
+        for (CartLine cartItem : checkout.cartItems) {
+            Product product = checkout.products.get(cartItem.getProductId());
             OrderItem orderItem = OrderItem.builder()
                     .order(savedOrder)
                     .product(product)
@@ -112,11 +225,10 @@ public class OrderServiceImpl implements OrderService {
                     .price(product.getPrice())
                     .subtotal(product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())))
                     .build();
-            orderItemRepository.save(orderItem);
-
-            product.setStock(product.getStock() - cartItem.getQuantity());
-            productRepository.save(product);
+            orderItems.add(orderItem);
+            eventPublisher.publishEvent(ProductChangedEvent.of(product, ProductChangedEvent.ChangeType.STOCK_CHANGED));
         }
+        orderItemRepository.saveAll(orderItems);
 
         // Tracking ban đầu
         OrderTracking tracking = OrderTracking.builder()
@@ -128,8 +240,9 @@ public class OrderServiceImpl implements OrderService {
                 .build();
         orderTrackingRepository.save(tracking);
 
-        cartItemRepository.deleteByCartId(cart.getId());
-        emailService.sendOrderConfirmationEmail(user.getEmail(), savedOrder);
+        cartStore.clear(user.getId());
+        // Mail xác nhận được OrderOutboxDispatcher gửi sau khi commit
+        orderOutbox.record(savedOrder, OrderEventType.ORDER_PLACED, null);
 
         return mapToOrderDetailResponse(savedOrder);
     }
@@ -140,6 +253,16 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findByUserId(user.getId(), pageable).map(this::mapToOrderResponse);
     }
 
+    @Override
+    public CursorPageResponse<OrderResponse> getMyOrdersAfter(String cursor, int size) {
+        User user = getCurrentUser();
+        Long afterId = CursorUtils.decode(cursor);
+        // Id tăng dần theo thời điểm tạo nên sắp xếp id giảm dần tương đương createdAt giảm dần
+        Slice<Order> slice = orderRepository.findByUserIdAndIdLessThan(user.getId(),
+                afterId != null ? afterId : Long.MAX_VALUE, CursorUtils.firstPage(size, false));
+        return CursorUtils.toResponse(slice, this::mapToOrderResponse, Order::getId);
+    }
+
     @Override
     public Page<OrderResponse> getMyOrdersByStatus(OrderStatus status, Pageable pageable) {
         User user = getCurrentUser();
@@ -184,11 +307,15 @@ public class OrderServiceImpl implements OrderService {
         orderRepository.save(order);
 
         List<OrderItem> orderItems = orderItemRepository.findByOrderId(order.getId());
-        for (OrderItem item : orderItems) {
-            Product product = item.getProduct();
-            product.setStock(product.getStock() + item.getQuantity());
-            productRepository.save(product);
-        }
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, OrderStatus.PENDING, orderItems));
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        orderItems.forEach(item -> quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+        stockReservationEngine.release(quantities);
+        List<Product> products = productRepository.findAllById(quantities.keySet());
+        syncStock(products);
+        products.forEach(product ->
+                eventPublisher.publishEvent(ProductChangedEvent.of(product, ProductChangedEvent.ChangeType.STOCK_CHANGED)));
 
         OrderTracking tracking = OrderTracking.builder()
                 .order(order)
@@ -199,16 +326,39 @@ public class OrderServiceImpl implements OrderService {
                 .build();
         orderTrackingRepository.save(tracking);
 
-        emailService.sendOrderStatusUpdateEmail(user.getEmail(), order);
+        orderOutbox.record(order, OrderEventType.ORDER_CANCELLED, OrderStatus.PENDING);
         return new MessageResponse("Order cancelled successfully");
     }
 
+    /**
+     * Nạp lại tồn kho sau khi StockReservationEngine cập nhật DB, một câu SELECT cho mọi sản phẩm.
+     * Product được đánh dấu read-only để giá trị này (chỉ dùng cho event) không bị flush thành UPDATE.
+     */
+    private void syncStock(Collection<Product> products) {
+        Map<Long, Product> byId = products.stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity(), (first, second) -> first));
+        Session session = entityManager.unwrap(Session.class);
+        for (Object[] row : productRepository.findStockByIdIn(byId.keySet())) {
+            Product product = byId.get((Long) row[0]);
+            session.setReadOnly(product, true);
+            product.setStock((Integer) row[1]);
+        }
+    }
+
     // ===== ADMIN =====
     @Override
     public Page<OrderResponse> getAllOrders(Pageable pageable) {
         return orderRepository.findAll(pageable).map(this::mapToOrderResponse);
     }
 
+    @Override
+    public CursorPageResponse<OrderResponse> getAllOrdersAfter(String cursor, int size) {
+        Long afterId = CursorUtils.decode(cursor);
+        Slice<Order> slice = orderRepository.findByIdLessThan(
+                afterId != null ? afterId : Long.MAX_VALUE, CursorUtils.firstPage(size, false));
+        return CursorUtils.toResponse(slice, this::mapToOrderResponse, Order::getId);
+    }
+
     @Override
     public Page<OrderResponse> getOrdersByStatus(OrderStatus status, Pageable pageable) {
         return orderRepository.findByStatus(status, pageable).map(this::mapToOrderResponse);
@@ -226,7 +376,8 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", id));
 
-        validateStatusTransition(order.getStatus(), request.getStatus());
+        OrderStatus previousStatus = order.getStatus();
+        validateStatusTransition(previousStatus, request.getStatus());
         order.setStatus(request.getStatus());
 
         if (request.getStatus() == OrderStatus.COMPLETED &&
@@ -235,6 +386,8 @@ public class OrderServiceImpl implements OrderService {
             order.setPaidAt(LocalDateTime.now());
         }
         orderRepository.save(order);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, previousStatus,
+                orderItemRepository.findByOrderId(order.getId())));
 
         OrderTracking tracking = OrderTracking.builder()
                 .order(order)
@@ -246,7 +399,7 @@ public class OrderServiceImpl implements OrderService {
                 .build();
         orderTrackingRepository.save(tracking);
 
-        emailService.sendOrderStatusUpdateEmail(order.getUser().getEmail(), order);
+        orderOutbox.record(order, OrderEventType.STATUS_CHANGED, previousStatus);
         return new MessageResponse("Order status updated successfully");
     }
 
@@ -279,77 +432,16 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private OrderResponse mapToOrderResponse(Order order) {
-        return OrderResponse.builder()
-                .id(order.getId())
-                .orderCode(order.getOrderCode())
-                .userId(order.getUser().getId())
-                .username(order.getUser().getUsername())
-                .totalPrice(order.getTotalPrice())
-                .status(order.getStatus())
-                .paymentMethod(order.getPaymentMethod())
-                .paymentStatus(order.getPaymentStatus())
-                .shippingAddress(order.getShippingAddress())
-                .recipientName(order.getRecipientName())
-                .recipientPhone(order.getRecipientPhone())
-                .note(order.getNote())
-                .paypalOrderId(order.getPaypalOrderId())
-                .paidAt(order.getPaidAt())
-                .createdAt(order.getCreatedAt())
-                .updatedAt(order.getUpdatedAt())
-                .build();
+        return orderMapper.toResponse(order);
     }
 
     private OrderDetailResponse mapToOrderDetailResponse(Order order) {
         List<OrderItemResponse> itemResponses = orderItemRepository.findByOrderId(order.getId())
-                .stream().map(this::mapToOrderItemResponse).collect(Collectors.toList());
+                .stream().map(orderMapper::toItemResponse).collect(Collectors.toList());
         List<OrderTrackingResponse> trackingResponses = orderTrackingRepository
                 .findByOrderIdOrderByCreatedAtAsc(order.getId())
-                .stream().map(this::mapToOrderTrackingResponse).collect(Collectors.toList());
-
-        return OrderDetailResponse.builder()
-                .id(order.getId())
-                .orderCode(order.getOrderCode())
-                .userId(order.getUser().getId())
-                .username(order.getUser().getUsername())
-                .userEmail(order.getUser().getEmail())
-                .userPhone(order.getUser().getPhone())
-                .totalPrice(order.getTotalPrice())
-                .status(order.getStatus())
-                .paymentMethod(order.getPaymentMethod())
-                .paymentStatus(order.getPaymentStatus())
-                .shippingAddress(order.getShippingAddress())
-                .recipientName(order.getRecipientName())
-                .recipientPhone(order.getRecipientPhone())
-                .note(order.getNote())
-                .paypalOrderId(order.getPaypalOrderId())
-                .paidAt(order.getPaidAt())
-                .items(itemResponses)
-                .trackings(trackingResponses)
-                .createdAt(order.getCreatedAt())
-                .updatedAt(order.getUpdatedAt())
-                .build();
-    }
-
-    private OrderItemResponse mapToOrderItemResponse(OrderItem item) {
-        return OrderItemResponse.builder()
-                .id(item.getId())
-                .productId(item.getProduct().getId())
-                .productName(item.getProductName())
-                .quantity(item.getQuantity())
-                .price(item.getPrice())
-                .subtotal(item.getSubtotal())
-                .build();
-    }
+                .stream().map(orderMapper::toTrackingResponse).collect(Collectors.toList());
 
-    private OrderTrackingResponse mapToOrderTrackingResponse(OrderTracking tracking) {
-        return OrderTrackingResponse.builder()
-                .id(tracking.getId())
-                .orderId(tracking.getOrder().getId())
-                .status(tracking.getStatus())
-                .description(tracking.getDescription())
-                .location(tracking.getLocation())
-                .updatedBy(tracking.getUpdatedBy())
-                .createdAt(tracking.getCreatedAt())
-                .build();
+        return orderMapper.toDetailResponse(order, itemResponses, trackingResponses);
     }
 }
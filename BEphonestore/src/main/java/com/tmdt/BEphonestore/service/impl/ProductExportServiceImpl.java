@@ -0,0 +1,197 @@
+package com.tmdt.BEphonestore.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tmdt.BEphonestore.enums.ExportFormat;
+import com.tmdt.BEphonestore.service.ProductExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Xuất catalog bằng JDBC con trỏ một chiều: mỗi dòng được ghi ngay ra luồng rồi bỏ đi,
+ * nên bộ nhớ không phụ thuộc số sản phẩm (không nạp entity, không phân trang OFFSET).
+ */
+@Slf4j
+@Service
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String SELECT = "SELECT p.id, p.name, p.description, p.price, p.stock, p.image_url, " +
+            "p.specifications, p.status, p.category_id, c.name AS category_name, p.created_at, p.updated_at " +
+            "FROM product p LEFT JOIN category c ON c.id = p.category_id ";
+
+    private static final String[] COLUMNS = { "id", "name", "description", "price", "stock", "imageUrl",
+            "specifications", "status", "categoryId", "categoryName", "createdAt", "updatedAt" };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ProductExportServiceImpl(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public long exportProducts(ExportFormat format, LocalDateTime since, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long[] count = { 0 };
+
+        try {
+            jdbcTemplate.query(statement(since), rs -> {
+                try {
+                    writer.write(rs);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            // Client ngắt kết nối giữa chừng
+            throw e.getCause();
+        }
+
+        log.info("Exported {} products as {} in {} ms", count[0], format, System.currentTimeMillis() - start);
+        return count[0];
+    }
+
+    private PreparedStatementCreator statement(LocalDateTime since) {
+        return connection -> {
+            String sql = SELECT + (since != null ? "WHERE p.updated_at >= ? " : "") + "ORDER BY p.id";
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            if (since != null) {
+                ps.setTimestamp(1, Timestamp.valueOf(since));
+            }
+            return ps;
+        };
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * Mỗi sản phẩm một object JSON trên một dòng
+     */
+    private class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", rs.getLong("id"));
+            generator.writeStringField("name", rs.getString("name"));
+            generator.writeStringField("description", rs.getString("description"));
+            BigDecimal price = rs.getBigDecimal("price");
+            if (price != null) {
+                generator.writeNumberField("price", price);
+            } else {
+                generator.writeNullField("price");
+            }
+            generator.writeNumberField("stock", rs.getInt("stock"));
+            generator.writeStringField("imageUrl", rs.getString("image_url"));
+            generator.writeStringField("specifications", rs.getString("specifications"));
+            generator.writeStringField("status", rs.getString("status"));
+            long categoryId = rs.getLong("category_id");
+            if (rs.wasNull()) {
+                generator.writeNullField("categoryId");
+            } else {
+                generator.writeNumberField("categoryId", categoryId);
+            }
+            generator.writeStringField("categoryName", rs.getString("category_name"));
+            generator.writeStringField("createdAt", timestamp(rs, "created_at"));
+            generator.writeStringField("updatedAt", timestamp(rs, "updated_at"));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    /**
+     * CSV theo RFC 4180, dòng đầu là tên cột
+     */
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong("id")));
+            writeField(rs.getString("name"));
+            writeField(rs.getString("description"));
+            BigDecimal price = rs.getBigDecimal("price");
+            writeField(price != null ? price.toPlainString() : null);
+            writeField(rs.getString("stock"));
+            writeField(rs.getString("image_url"));
+            writeField(rs.getString("specifications"));
+            writeField(rs.getString("status"));
+            writeField(rs.getString("category_id"));
+            writeField(rs.getString("category_name"));
+            writeField(timestamp(rs, "created_at"));
+            writeField(timestamp(rs, "updated_at"));
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            writer.write(',');
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp timestamp = rs.getTimestamp(column);
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+}
@@ -0,0 +1,687 @@
+package com.tmdt.BEphonestore.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tmdt.BEphonestore.dto.response.ImportRowError;
+import com.tmdt.BEphonestore.dto.response.ProductImportResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.enums.ExportFormat;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.event.ProductsImportedEvent;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import com.tmdt.BEphonestore.service.FileStorageService;
+import com.tmdt.BEphonestore.service.ProductImportService;
+import com.tmdt.BEphonestore.util.CsvReader;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Nhập sản phẩm hàng loạt: đọc file theo luồng, mỗi khối CHUNK_SIZE dòng được kiểm tra song song
+ * rồi ghi bằng JDBC batch trong một transaction. Hãng được tra từ map tên -> id nạp một lần,
+ * ảnh trong file zip chỉ được lưu (trên một pool giới hạn) cho các dòng đã qua kiểm tra.
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int IMAGE_WORKERS = 4;
+    private static final int IMAGE_QUEUE_SIZE = 8; // giới hạn số ảnh đã đọc nhưng chưa ghi
+    private static final int IMAGE_READ_LIMIT = 5 * 1024 * 1024 + 1; // FileStorageService từ chối ảnh > 5MB
+
+    // Ràng buộc cột của bảng product
+    private static final int NAME_MAX_LENGTH = 200;
+    private static final int IMAGE_URL_MAX_LENGTH = 500;
+    private static final int PRICE_PRECISION = 18;
+    private static final int PRICE_SCALE = 2;
+
+    private static final String INSERT_SQL = "INSERT INTO product (name, description, price, stock, category_id, " +
+            "image_url, specifications, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Dòng cập nhật không có ảnh thì giữ ảnh cũ
+    private static final String UPDATE_SQL = "UPDATE product SET name = ?, description = ?, price = ?, stock = ?, " +
+            "category_id = ?, image_url = COALESCE(?, image_url), specifications = ?, status = ?, updated_at = ? " +
+            "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductImportServiceImpl(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            CategoryRepository categoryRepository,
+            ProductRepository productRepository,
+            FileStorageService fileStorageService,
+            ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.fileStorageService = fileStorageService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public ProductImportResponse importProducts(MultipartFile file, ExportFormat format, MultipartFile images) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Import file is empty");
+        }
+        long start = System.currentTimeMillis();
+
+        Categories categories = loadCategories();
+        Result result = new Result();
+        int imagesStored;
+
+        try (ImageArchive archive = images != null && !images.isEmpty() ? openImages(images) : new ImageArchive();
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            Iterator<RawRow> rows = format == ExportFormat.CSV ? new CsvRows(reader) : new NdjsonRows(reader);
+            List<RawRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == CHUNK_SIZE) {
+                    processChunk(chunk, categories, archive, result);
+                    chunk.clear();
+                }
+            }
+            processChunk(chunk, categories, archive, result);
+            imagesStored = archive.urls.size();
+        } catch (IOException ex) {
+            throw new BadRequestException("Could not read import file: " + ex.getMessage());
+        } finally {
+            // Mỗi khối commit riêng: khối đã ghi vẫn phải được báo cho cache/feed/index dù khối sau bị lỗi
+            if (result.created > 0 || !result.updatedIds.isEmpty()) {
+                eventPublisher.publishEvent(new ProductsImportedEvent((int) result.created, result.updatedIds));
+            }
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("Imported products: {} rows, {} created, {} updated, {} failed, {} images in {} ms",
+                result.total, result.created, result.updatedIds.size(), result.failed, imagesStored, duration);
+
+        return ProductImportResponse.builder()
+                .totalRows(result.total)
+                .created(result.created)
+                .updated(result.updatedIds.size())
+                .failed(result.failed)
+                .imagesStored(imagesStored)
+                .durationMillis(duration)
+                .errors(result.errors)
+                .build();
+    }
+
+    private void processChunk(List<RawRow> chunk, Categories categories, ImageArchive archive, Result result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        result.total += chunk.size();
+
+        List<Outcome> outcomes = chunk.parallelStream()
+                .map(row -> validate(row, categories, archive))
+                .toList();
+
+        Set<Long> requestedIds = new HashSet<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.product != null && outcome.product.id != null) {
+                requestedIds.add(outcome.product.id);
+            }
+        }
+        Set<Long> existingIds = requestedIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(productRepository.findExistingIds(requestedIds));
+
+        List<ImportRow> accepted = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.error != null) {
+                result.fail(outcome.row, outcome.error);
+            } else if (outcome.product.id != null && !existingIds.contains(outcome.product.id)) {
+                result.fail(outcome.row, "Product not found with id: " + outcome.product.id);
+            } else {
+                accepted.add(outcome.product);
+            }
+        }
+
+        // Chỉ lưu ảnh cho dòng hợp lệ; dòng có ảnh không lưu được thì bị loại
+        archive.store(accepted);
+        List<ImportRow> inserts = new ArrayList<>();
+        List<ImportRow> updates = new ArrayList<>();
+        for (ImportRow row : accepted) {
+            if (row.imageName != null) {
+                String url = archive.urls.get(row.imageName);
+                if (url == null) {
+                    result.fail(row.row, archive.errors.getOrDefault(row.imageName,
+                            "Could not store image: " + row.imageName));
+                    continue;
+                }
+                row.imageUrl = url;
+            }
+            (row.id == null ? inserts : updates).add(row);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, row) -> {
+                    setColumns(ps, row);
+                    ps.setTimestamp(9, now);
+                    ps.setTimestamp(10, now);
+                });
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, row) -> {
+                    setColumns(ps, row);
+                    ps.setTimestamp(9, now);
+                    ps.setLong(10, row.id);
+                });
+            }
+        });
+
+        result.created += inserts.size();
+        updates.forEach(row -> result.updatedIds.add(row.id));
+    }
+
+    private static void setColumns(PreparedStatement ps, ImportRow row) throws SQLException {
+        ps.setString(1, row.name);
+        ps.setString(2, row.description);
+        ps.setBigDecimal(3, row.price);
+        ps.setInt(4, row.stock);
+        ps.setLong(5, row.categoryId);
+        if (row.imageUrl != null) {
+            ps.setString(6, row.imageUrl);
+        } else {
+            ps.setNull(6, Types.NVARCHAR);
+        }
+        ps.setString(7, row.specifications);
+        ps.setString(8, row.status.name());
+    }
+
+    /**
+     * Kiểm tra một dòng; chạy song song nên chỉ đọc dữ liệu dùng chung
+     */
+    private Outcome validate(RawRow raw, Categories categories, ImageArchive archive) {
+        if (raw.error != null) {
+            return new Outcome(raw.row, null, raw.error);
+        }
+        try {
+            Map<String, String> fields = raw.fields;
+            ImportRow row = new ImportRow();
+            row.row = raw.row;
+
+            String id = value(fields, "id");
+            row.id = id != null ? parseLong(id, "id") : null;
+
+            row.name = value(fields, "name");
+            if (row.name == null) {
+                throw new BadRequestException("name is required");
+            }
+            if (row.name.length() > NAME_MAX_LENGTH) {
+                throw new BadRequestException("name must be at most " + NAME_MAX_LENGTH + " characters");
+            }
+            row.description = value(fields, "description");
+            row.specifications = value(fields, "specifications");
+
+            String price = value(fields, "price");
+            if (price == null) {
+                throw new BadRequestException("price is required");
+            }
+            try {
+                row.price = new BigDecimal(price);
+            } catch (NumberFormatException ex) {
+                throw new BadRequestException("Invalid price: " + price);
+            }
+            if (row.price.signum() <= 0) {
+                throw new BadRequestException("Price must be greater than 0");
+            }
+            // Cột numeric(18, 2): tối đa 2 chữ số thập phân và 16 chữ số phần nguyên
+            row.price = row.price.stripTrailingZeros();
+            if (row.price.scale() < 0) {
+                row.price = row.price.setScale(0);
+            }
+            if (row.price.scale() > PRICE_SCALE) {
+                throw new BadRequestException("Price must have at most " + PRICE_SCALE + " decimal places");
+            }
+            if (row.price.precision() - row.price.scale() > PRICE_PRECISION - PRICE_SCALE) {
+                throw new BadRequestException("Price is too large: " + price);
+            }
+
+            String stock = value(fields, "stock");
+            row.stock = stock != null ? parseInt(stock, "stock") : 0;
+            if (row.stock < 0) {
+                throw new BadRequestException("Stock must be at least 0");
+            }
+
+            String status = value(fields, "status");
+            try {
+                row.status = status != null ? ProductStatus.valueOf(status.toUpperCase()) : ProductStatus.ACTIVE;
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("Invalid status: " + status);
+            }
+
+            row.categoryId = categories.resolve(value(fields, "categoryId"), value(fields, "categoryName"));
+            String imageUrl = value(fields, "imageUrl");
+            if (ImageArchive.isArchiveName(imageUrl)) {
+                row.imageName = archive.find(imageUrl);
+            } else {
+                if (imageUrl != null && imageUrl.length() > IMAGE_URL_MAX_LENGTH) {
+                    throw new BadRequestException("imageUrl must be at most " + IMAGE_URL_MAX_LENGTH + " characters");
+                }
+                row.imageUrl = imageUrl;
+            }
+            return new Outcome(raw.row, row, null);
+        } catch (BadRequestException ex) {
+            return new Outcome(raw.row, null, ex.getMessage());
+        }
+    }
+
+    private static String value(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static long parseLong(String value, String column) {
+        try {
+            return new BigDecimal(value).longValueExact();
+        } catch (NumberFormatException | ArithmeticException ex) {
+            throw new BadRequestException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static int parseInt(String value, String column) {
+        try {
+            return Math.toIntExact(parseLong(value, column));
+        } catch (ArithmeticException ex) {
+            throw new BadRequestException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private Categories loadCategories() {
+        Categories categories = new Categories();
+        for (Category category : categoryRepository.findAll()) {
+            categories.ids.add(category.getId());
+            categories.byName.put(category.getName().trim().toLowerCase(), category.getId());
+        }
+        return categories;
+    }
+
+    /**
+     * Chép zip ảnh ra file tạm để đọc từng entry theo tên khi cần; chưa lưu ảnh nào
+     */
+    private ImageArchive openImages(MultipartFile images) {
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile("product-import-", ".zip");
+            images.transferTo(tempFile);
+            return new ImageArchive(tempFile);
+        } catch (IOException ex) {
+            deleteTempFile(tempFile);
+            throw new BadRequestException("Could not read image archive: " + ex.getMessage());
+        }
+    }
+
+    private static void deleteTempFile(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException ex) {
+            log.warn("Could not delete temporary image archive {}: {}", tempFile, ex.getMessage());
+        }
+    }
+
+    private static String baseName(String path) {
+        return path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+    }
+
+    /**
+     * Dòng CSV: dòng đầu là tên cột, các cột không biết bị bỏ qua (vd. createdAt của file xuất)
+     */
+    private static class CsvRows implements Iterator<RawRow> {
+        private final CsvReader reader;
+        private final List<String> header;
+        private long row = 0;
+        private boolean stopped = false;
+        private RawRow next;
+
+        CsvRows(BufferedReader reader) throws IOException {
+            this.reader = new CsvReader(reader);
+            List<String> header = this.reader.next();
+            if (header == null) {
+                throw new BadRequestException("Import file has no header row");
+            }
+            this.header = header.stream().map(String::trim).toList();
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            if (stopped) {
+                return;
+            }
+            try {
+                List<String> fields;
+                do {
+                    fields = reader.next();
+                } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+                if (fields == null) {
+                    return;
+                }
+                row++;
+                if (fields.size() != header.size()) {
+                    next = new RawRow(row, null,
+                            "Expected " + header.size() + " columns but found " + fields.size());
+                    return;
+                }
+                Map<String, String> values = new HashMap<>(header.size() * 2);
+                for (int i = 0; i < header.size(); i++) {
+                    values.put(header.get(i), fields.get(i));
+                }
+                next = new RawRow(row, values, null);
+            } catch (IOException ex) {
+                // Lỗi cấu trúc (vd. thiếu dấu nháy đóng) làm hỏng phần còn lại của file
+                stopped = true;
+                next = new RawRow(++row, null, "Malformed CSV, import stopped: " + ex.getMessage());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public RawRow next() {
+            RawRow current = next;
+            advance();
+            return current;
+        }
+    }
+
+    /**
+     * Mỗi dòng một object JSON, khóa trùng tên cột CSV
+     */
+    private class NdjsonRows implements Iterator<RawRow> {
+        private final BufferedReader reader;
+        private long row = 0;
+        private RawRow next;
+
+        NdjsonRows(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            advance();
+        }
+
+        private void advance() throws IOException {
+            next = null;
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return;
+            }
+            row++;
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.isObject()) {
+                    next = new RawRow(row, null, "Expected a JSON object");
+                    return;
+                }
+                Map<String, String> values = new HashMap<>();
+                node.fields().forEachRemaining(field -> values.put(field.getKey(),
+                        field.getValue().isNull() ? null : field.getValue().asText()));
+                next = new RawRow(row, values, null);
+            } catch (JsonProcessingException ex) {
+                next = new RawRow(row, null, "Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public RawRow next() {
+            RawRow current = next;
+            try {
+                advance();
+            } catch (IOException ex) {
+                throw new BadRequestException("Could not read import file: " + ex.getMessage());
+            }
+            return current;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class RawRow {
+        final long row;
+        final Map<String, String> fields;
+        final String error;
+    }
+
+    @AllArgsConstructor
+    private static class Outcome {
+        final long row;
+        final ImportRow product;
+        final String error;
+    }
+
+    private static class ImportRow {
+        long row;
+        Long id;
+        String name;
+        String description;
+        BigDecimal price;
+        int stock;
+        long categoryId;
+        String imageUrl;
+        String imageName; // tên file trong zip, imageUrl được điền sau khi lưu ảnh
+        String specifications;
+        ProductStatus status;
+    }
+
+    private static class Categories {
+        final Set<Long> ids = new HashSet<>();
+        final Map<String, Long> byName = new HashMap<>();
+
+        long resolve(String id, String name) {
+            if (id != null) {
+                long categoryId = parseLong(id, "categoryId");
+                if (!ids.contains(categoryId)) {
+                    throw new BadRequestException("Category not found with id: " + categoryId);
+                }
+                return categoryId;
+            }
+            if (name != null) {
+                Long categoryId = byName.get(name.toLowerCase());
+                if (categoryId == null) {
+                    throw new BadRequestException("Category not found with name: " + name);
+                }
+                return categoryId;
+            }
+            throw new BadRequestException("categoryId or categoryName is required");
+        }
+    }
+
+    /**
+     * Zip ảnh mở bằng ZipFile (đọc entry theo tên). Ghi file chạy trên pool cố định với hàng đợi ngắn;
+     * khi hàng đợi đầy, luồng chính tự ghi (CallerRunsPolicy) nên bộ nhớ dùng cho ảnh luôn bị chặn trên.
+     */
+    private class ImageArchive implements AutoCloseable {
+        private final Path tempFile;
+        private final ZipFile zip;
+        private final ThreadPoolExecutor pool;
+        private final Map<String, ZipEntry> entries = new HashMap<>();
+
+        final Map<String, String> urls = new ConcurrentHashMap<>();
+        final Map<String, String> errors = new ConcurrentHashMap<>();
+
+        ImageArchive() {
+            this.tempFile = null;
+            this.zip = null;
+            this.pool = null;
+        }
+
+        ImageArchive(Path tempFile) throws IOException {
+            this.tempFile = tempFile;
+            this.zip = new ZipFile(tempFile.toFile());
+            Enumeration<? extends ZipEntry> all = zip.entries();
+            while (all.hasMoreElements()) {
+                ZipEntry entry = all.nextElement();
+                String name = baseName(entry.getName());
+                if (!entry.isDirectory() && !name.isEmpty() && !name.startsWith(".")
+                        && !entry.getName().startsWith("__MACOSX/")) {
+                    entries.put(name, entry);
+                }
+            }
+            this.pool = new ThreadPoolExecutor(IMAGE_WORKERS, IMAGE_WORKERS, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(IMAGE_QUEUE_SIZE), new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+
+        /**
+         * URL tuyệt đối hoặc /uploads/... giữ nguyên, còn lại là tên file trong zip
+         */
+        static boolean isArchiveName(String imageUrl) {
+            return imageUrl != null && !imageUrl.startsWith("/") && !imageUrl.startsWith("http://")
+                    && !imageUrl.startsWith("https://");
+        }
+
+        /**
+         * Chỉ kiểm tra entry có tồn tại; chạy song song nên không ghi gì
+         */
+        String find(String imageUrl) {
+            String name = baseName(imageUrl);
+            if (!entries.containsKey(name)) {
+                throw new BadRequestException("Image not found in archive: " + name);
+            }
+            return name;
+        }
+
+        /**
+         * Lưu ảnh (mỗi tên một lần) cho các dòng đã được chấp nhận, chờ tới khi ghi xong
+         */
+        void store(List<ImportRow> rows) {
+            if (zip == null) {
+                return;
+            }
+            Set<String> queued = new HashSet<>();
+            List<Future<?>> pending = new ArrayList<>();
+            for (ImportRow row : rows) {
+                String name = row.imageName;
+                if (name == null || urls.containsKey(name) || errors.containsKey(name) || !queued.add(name)) {
+                    continue;
+                }
+                byte[] content;
+                try (InputStream in = zip.getInputStream(entries.get(name))) {
+                    content = in.readNBytes(IMAGE_READ_LIMIT);
+                } catch (IOException ex) {
+                    errors.put(name, "Could not read image " + name + ": " + ex.getMessage());
+                    continue;
+                }
+                pending.add(pool.submit(() -> {
+                    try {
+                        urls.put(name, "/uploads/" + fileStorageService.storeFile(name, content));
+                    } catch (RuntimeException ex) {
+                        errors.put(name, ex.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> future : pending) {
+                try {
+                    future.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException ex) {
+                    log.warn("Could not store imported image: {}", ex.getCause().getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (zip == null) {
+                return;
+            }
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(10, TimeUnit.MINUTES)) {
+                    log.warn("Timed out waiting for imported images to be stored");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                zip.close();
+            } catch (IOException ex) {
+                log.warn("Could not close image archive: {}", ex.getMessage());
+            }
+            deleteTempFile(tempFile);
+        }
+    }
+
+    private static class Result {
+        long total;
+        long created;
+        long failed;
+        final List<Long> updatedIds = new ArrayList<>();
+        final List<ImportRowError> errors = new ArrayList<>();
+
+        void fail(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(row, message));
+            }
+        }
+    }
+}
@@ -1,42 +1,109 @@
 package com.tmdt.BEphonestore.service.impl;
 
+import com.tmdt.BEphonestore.cache.ProductCache;
+import com.tmdt.BEphonestore.dto.request.ProductFilterRequest;
 import com.tmdt.BEphonestore.dto.request.ProductRequest;
+import com.tmdt.BEphonestore.dto.response.CursorPageResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
+import com.tmdt.BEphonestore.dto.response.ProductBatchResponse;
+import com.tmdt.BEphonestore.dto.response.ProductComparisonResponse;
+import com.tmdt.BEphonestore.dto.response.ProductFacetResponse;
 import com.tmdt.BEphonestore.dto.response.ProductResponse;
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
+import com.tmdt.BEphonestore.dto.response.SuggestionResponse;
 import com.tmdt.BEphonestore.entity.Category;
 import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.enums.BestSellerWindow;
 import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
 import com.tmdt.BEphonestore.exception.BadRequestException;
 import com.tmdt.BEphonestore.exception.ResourceNotFoundException;
+import com.tmdt.BEphonestore.exception.ServiceUnavailableException;
+import com.tmdt.BEphonestore.feed.BestSellerFeed;
+import com.tmdt.BEphonestore.feed.NewArrivalsFeed;
+import com.tmdt.BEphonestore.mapper.ProductMapper;
+import com.tmdt.BEphonestore.recommend.CoPurchaseIndex;
 import com.tmdt.BEphonestore.repository.CategoryRepository;
 import com.tmdt.BEphonestore.repository.ProductRepository;
+import com.tmdt.BEphonestore.search.FacetIndex;
+import com.tmdt.BEphonestore.search.ProductIndexManager;
+import com.tmdt.BEphonestore.search.ProductSearchIndex;
+import com.tmdt.BEphonestore.search.SpecIndex;
+import com.tmdt.BEphonestore.search.SuggestionIndex;
 import com.tmdt.BEphonestore.service.FileStorageService;
 import com.tmdt.BEphonestore.service.ProductService;
-import org.modelmapper.ModelMapper;
+import com.tmdt.BEphonestore.util.CursorUtils;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final int MAX_COMPARE_SIZE = 10;
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final FileStorageService fileStorageService;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductIndexManager productIndexManager;
+    private final SuggestionIndex suggestionIndex;
+    private final FacetIndex facetIndex;
+    private final SpecIndex specIndex;
+    private final ProductCache productCache;
+    private final NewArrivalsFeed newArrivalsFeed;
+    private final BestSellerFeed bestSellerFeed;
+    private final CoPurchaseIndex coPurchaseIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ProductServiceImpl(ProductRepository productRepository,
             CategoryRepository categoryRepository,
             FileStorageService fileStorageService,
-            ModelMapper modelMapper) {
+            ProductMapper productMapper,
+            ProductSearchIndex productSearchIndex,
+            ProductIndexManager productIndexManager,
+            SuggestionIndex suggestionIndex,
+            FacetIndex facetIndex,
+            SpecIndex specIndex,
+            ProductCache productCache,
+            NewArrivalsFeed newArrivalsFeed,
+            BestSellerFeed bestSellerFeed,
+            CoPurchaseIndex coPurchaseIndex,
+            ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.fileStorageService = fileStorageService;
-        this.modelMapper = modelMapper;
+        this.productMapper = productMapper;
+        this.productSearchIndex = productSearchIndex;
+        this.productIndexManager = productIndexManager;
+        this.suggestionIndex = suggestionIndex;
+        this.facetIndex = facetIndex;
+        this.specIndex = specIndex;
+        this.productCache = productCache;
+        this.newArrivalsFeed = newArrivalsFeed;
+        this.bestSellerFeed = bestSellerFeed;
+        this.coPurchaseIndex = coPurchaseIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -45,36 +112,216 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public Page<ProductResponse> getActiveProducts(Pageable pageable) {
-        return productRepository.findByStatus(ProductStatus.ACTIVE, pageable)
-                .map(this::mapToResponse);
+    public Page<ProductSummaryResponse> getActiveProducts(Pageable pageable) {
+        return productRepository.findSummariesByStatus(ProductStatus.ACTIVE, pageable);
+    }
+
+    @Override
+    public CursorPageResponse<ProductSummaryResponse> getActiveProductsAfter(String cursor, int size,
+            boolean ascending) {
+        Long afterId = CursorUtils.decode(cursor);
+        Pageable pageable = CursorUtils.firstPage(size, ascending);
+
+        Slice<ProductSummaryResponse> slice = ascending
+                ? productRepository.findSummariesByStatusAndIdGreaterThan(ProductStatus.ACTIVE,
+                        afterId != null ? afterId : 0L, pageable)
+                : productRepository.findSummariesByStatusAndIdLessThan(ProductStatus.ACTIVE,
+                        afterId != null ? afterId : Long.MAX_VALUE, pageable);
+        return CursorUtils.toResponse(slice, Function.identity(), ProductSummaryResponse::getId);
     }
 
     @Override
     public ProductResponse getProductById(Long id) {
-        Product product = findProductById(id);
-        return mapToResponse(product);
+        return productCache.get(id, key -> mapToResponse(findProductById(key)));
     }
 
     @Override
-    public Page<ProductResponse> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.searchProductsByStatus(keyword, ProductStatus.ACTIVE, pageable)
-                .map(this::mapToResponse);
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        if (uniqueIds.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Cannot request more than " + MAX_BATCH_SIZE + " products at once");
+        }
+
+        // Id chưa có trong cache được nạp cùng lúc bằng một truy vấn IN (join fetch category)
+        Map<Long, ProductResponse> found = productCache.getAll(uniqueIds,
+                missing -> productRepository.findAllWithCategoryByIdIn(new ArrayList<>(missing)).stream()
+                        .collect(Collectors.toMap(Product::getId, this::mapToResponse)));
+
+        List<ProductResponse> products = new ArrayList<>(uniqueIds.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            ProductResponse product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return ProductBatchResponse.builder()
+                .products(products)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    @Override
+    public ProductComparisonResponse compareProducts(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        if (uniqueIds.size() > MAX_COMPARE_SIZE) {
+            throw new BadRequestException("Cannot compare more than " + MAX_COMPARE_SIZE + " products");
+        }
+
+        List<ProductSummaryResponse> products = loadSummariesInOrder(new ArrayList<>(uniqueIds)).stream()
+                .filter(product -> product.getStatus() == ProductStatus.ACTIVE)
+                .toList();
+        List<Long> foundIds = products.stream().map(ProductSummaryResponse::getId).toList();
+        List<Long> missingIds = uniqueIds.stream().filter(id -> !foundIds.contains(id)).toList();
+
+        // Thông số đã được phân tích sẵn trong SpecIndex, không phân tích lại mỗi request
+        return ProductComparisonResponse.builder()
+                .products(products)
+                .rows(specIndex.compare(foundIds))
+                .missingIds(missingIds)
+                .build();
     }
 
     @Override
-    public Page<ProductResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
+    public Page<ProductSummaryResponse> searchProducts(String keyword, Pageable pageable) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return getActiveProducts(pageable);
+        }
+
+        // Index chưa dựng xong (vừa khởi động) thì dùng truy vấn LIKE cũ
+        if (!productIndexManager.isReady()) {
+            return productRepository.searchSummariesByStatus(keyword, ProductStatus.ACTIVE, pageable);
+        }
+
+        ProductSearchIndex.SearchResult result = productSearchIndex.search(keyword,
+                pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(loadSummariesInOrder(result.getIds()), pageable, result.getTotal());
+    }
+
+    @Override
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        return suggestionIndex.suggest(prefix, Math.max(1, Math.min(limit, SuggestionIndex.MAX_SUGGESTIONS)));
+    }
+
+    @Override
+    public Page<ProductSummaryResponse> getProductsByCategory(Long categoryId, Pageable pageable) {
         categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
 
-        return productRepository.findByCategoryIdAndStatus(categoryId, ProductStatus.ACTIVE, pageable)
-                .map(this::mapToResponse);
+        return productRepository.findSummariesByCategoryIdAndStatus(categoryId, ProductStatus.ACTIVE, pageable);
     }
 
     @Override
-    public Page<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository.findByPriceBetweenAndStatus(minPrice, maxPrice, ProductStatus.ACTIVE, pageable)
-                .map(this::mapToResponse);
+    public Page<ProductSummaryResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+            Pageable pageable) {
+        return productRepository.findSummariesByPriceBetweenAndStatus(minPrice, maxPrice, ProductStatus.ACTIVE,
+                pageable);
+    }
+
+    @Override
+    public ProductFacetResponse filterProducts(ProductFilterRequest filter, Pageable pageable) {
+        // Index chưa dựng xong (vừa khởi động) thì lọc bằng truy vấn DB, chưa có số lượng theo facet
+        if (!productIndexManager.isReady()) {
+            return filterFromDatabase(filter, pageable);
+        }
+
+        List<Long> keywordRanking = null;
+        if (filter.getKeyword() != null && !filter.getKeyword().trim().isEmpty()) {
+            keywordRanking = productSearchIndex.searchIds(filter.getKeyword());
+        }
+
+        FacetIndex.FacetResult result = facetIndex.query(filter, keywordRanking, specIndex.match(filter.getSpec()),
+                pageable.getOffset(), pageable.getPageSize());
+
+        return ProductFacetResponse.builder()
+                .products(new PageImpl<>(loadSummariesInOrder(result.getIds()), pageable, result.getTotal()))
+                .categories(result.getCategories())
+                .priceBands(result.getPriceBands())
+                .inStockCount(result.getInStockCount())
+                .outOfStockCount(result.getOutOfStockCount())
+                .build();
+    }
+
+    private ProductFacetResponse filterFromDatabase(ProductFilterRequest filter, Pageable pageable) {
+        if (filter.getSpec() != null && filter.getSpec().stream().anyMatch(s -> s != null && !s.isBlank())) {
+            throw new ServiceUnavailableException("Specification filters are not available yet, please try again");
+        }
+
+        // Cùng thứ tự với FacetIndex khi không có từ khóa: id giảm dần
+        // Chỉ lấy id qua Specification, phần hiển thị nạp bằng projection tóm tắt
+        Page<Long> ids = productRepository.findIds(filterSpecification(filter),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.DESC, "id")));
+
+        return ProductFacetResponse.builder()
+                .products(new PageImpl<>(loadSummariesInOrder(ids.getContent()), pageable, ids.getTotalElements()))
+                .categories(new ArrayList<>())
+                .priceBands(new ArrayList<>())
+                .build();
+    }
+
+    private static Specification<Product> filterSpecification(ProductFilterRequest filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("status"), ProductStatus.ACTIVE));
+
+            if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+                predicates.add(root.get("category").get("id").in(filter.getCategoryIds()));
+            }
+            if (filter.getPriceBands() != null && !filter.getPriceBands().isEmpty()) {
+                List<Predicate> bands = new ArrayList<>();
+                for (String bandKey : filter.getPriceBands()) {
+                    BigDecimal[] range = FacetIndex.bandRange(bandKey);
+                    if (range == null) {
+                        continue;
+                    }
+                    bands.add(cb.and(
+                            range[0] != null ? cb.greaterThanOrEqualTo(root.get("price"), range[0]) : cb.conjunction(),
+                            range[1] != null ? cb.lessThan(root.get("price"), range[1]) : cb.conjunction()));
+                }
+                predicates.add(bands.isEmpty() ? cb.disjunction() : cb.or(bands.toArray(new Predicate[0])));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getInStock() != null) {
+                predicates.add(filter.getInStock()
+                        ? cb.greaterThan(root.get("stock"), 0)
+                        : cb.lessThanOrEqualTo(root.get("stock"), 0));
+            }
+            if (filter.getKeyword() != null && !filter.getKeyword().trim().isEmpty()) {
+                String pattern = "%" + filter.getKeyword().trim().toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("name")), pattern),
+                        cb.like(cb.lower(root.get("description")), pattern)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    @Override
+    public List<ProductSummaryResponse> getRelatedProducts(Long id, int limit) {
+        List<Long> relatedIds = coPurchaseIndex.related(id, CoPurchaseIndex.TOP_K);
+        return loadSummariesInOrder(relatedIds).stream()
+                .filter(product -> product.getStatus() == ProductStatus.ACTIVE)
+                .limit(Math.max(1, Math.min(limit, CoPurchaseIndex.TOP_K)))
+                .toList();
+    }
+
+    @Override
+    public List<ProductSummaryResponse> getNewArrivals(int limit) {
+        return newArrivalsFeed.get(Math.max(1, Math.min(limit, NewArrivalsFeed.MAX_SIZE)));
+    }
+
+    @Override
+    public List<ProductSummaryResponse> getBestSellers(BestSellerWindow window, int limit) {
+        return bestSellerFeed.get(window, Math.max(1, Math.min(limit, BestSellerFeed.MAX_SIZE)));
     }
 
     @Override
@@ -101,7 +348,9 @@ public class ProductServiceImpl implements ProductService {
                 .status(request.getStatus() != null ? request.getStatus() : ProductStatus.ACTIVE)
                 .build();
 
-        return mapToResponse(productRepository.save(product));
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(savedProduct, ProductChangedEvent.ChangeType.CREATED));
+        return mapToResponse(savedProduct);
     }
 
     @Override
@@ -171,6 +420,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(updatedProduct, ProductChangedEvent.ChangeType.UPDATED));
         return mapToResponse(updatedProduct);
     }
 
@@ -187,6 +437,7 @@ public class ProductServiceImpl implements ProductService {
         }
 
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product, ProductChangedEvent.ChangeType.DELETED));
         return new MessageResponse("Product deleted successfully");
     }
 
@@ -201,6 +452,7 @@ public class ProductServiceImpl implements ProductService {
 
         product.setStock(stock);
         productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product, ProductChangedEvent.ChangeType.STOCK_CHANGED));
 
         return new MessageResponse("Stock updated successfully");
     }
@@ -210,10 +462,27 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
     }
 
+    /**
+     * Nạp bản tóm tắt sản phẩm theo danh sách id trong một truy vấn, giữ nguyên thứ tự id
+     */
+    private List<ProductSummaryResponse> loadSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductSummaryResponse> summaries = productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummaryResponse::getId, Function.identity()));
+
+        List<ProductSummaryResponse> responses = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductSummaryResponse summary = summaries.get(id);
+            if (summary != null) {
+                responses.add(summary);
+            }
+        }
+        return responses;
+    }
+
     private ProductResponse mapToResponse(Product product) {
-        ProductResponse response = modelMapper.map(product, ProductResponse.class);
-        response.setCategoryId(product.getCategory().getId());
-        response.setCategoryName(product.getCategory().getName());
-        return response;
+        return productMapper.toResponse(product);
     }
 }
\ No newline at end of file
@@ -2,18 +2,21 @@ package com.tmdt.BEphonestore.service.impl;
 
 import com.tmdt.BEphonestore.dto.request.ChangePasswordRequest;
 import com.tmdt.BEphonestore.dto.request.UpdateProfileRequest;
+import com.tmdt.BEphonestore.dto.response.CursorPageResponse;
 import com.tmdt.BEphonestore.dto.response.MessageResponse;
 import com.tmdt.BEphonestore.dto.response.UserResponse;
 import com.tmdt.BEphonestore.entity.User;
 import com.tmdt.BEphonestore.enums.UserStatus;
 import com.tmdt.BEphonestore.exception.BadRequestException;
 import com.tmdt.BEphonestore.exception.ResourceNotFoundException;
+import com.tmdt.BEphonestore.mapper.UserMapper;
 import com.tmdt.BEphonestore.repository.UserRepository;
 import com.tmdt.BEphonestore.service.UserService;
-import org.modelmapper.ModelMapper;
+import com.tmdt.BEphonestore.util.CursorUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -33,7 +36,7 @@ public class UserServiceImpl implements UserService {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private UserMapper userMapper;
 
     private User getCurrentUserEntity() {
         UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext()
@@ -46,7 +49,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserResponse getCurrentUser() {
         User user = getCurrentUserEntity();
-        return modelMapper.map(user, UserResponse.class);
+        return userMapper.toResponse(user);
     }
 
     @Override
@@ -54,7 +57,7 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
 
-        return modelMapper.map(user, UserResponse.class);
+        return userMapper.toResponse(user);
     }
 
     @Override
@@ -83,7 +86,7 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.save(user);
-        return modelMapper.map(updatedUser, UserResponse.class);
+        return userMapper.toResponse(updatedUser);
     }
 
     @Override
@@ -111,13 +114,21 @@ public class UserServiceImpl implements UserService {
     @Override
     public Page<UserResponse> getAllUsers(Pageable pageable) {
         Page<User> users = userRepository.findAll(pageable);
-        return users.map(user -> modelMapper.map(user, UserResponse.class));
+        return users.map(userMapper::toResponse);
+    }
+
+    @Override
+    public CursorPageResponse<UserResponse> getAllUsersAfter(String cursor, int size) {
+        Long afterId = CursorUtils.decode(cursor);
+        Slice<User> users = userRepository.findByIdLessThan(
+                afterId != null ? afterId : Long.MAX_VALUE, CursorUtils.firstPage(size, false));
+        return CursorUtils.toResponse(users, userMapper::toResponse, User::getId);
     }
 
     @Override
     public Page<UserResponse> searchUsers(String keyword, Pageable pageable) {
         Page<User> users = userRepository.searchUsers(keyword, pageable);
-        return users.map(user -> modelMapper.map(user, UserResponse.class));
+        return users.map(userMapper::toResponse);
     }
 
     @Override
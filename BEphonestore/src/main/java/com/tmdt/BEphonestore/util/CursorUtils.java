@@ -0,0 +1,75 @@
+package com.tmdt.BEphonestore.util;
+
+import com.tmdt.BEphonestore.dto.response.CursorPageResponse;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Tiện ích cho keyset pagination: con trỏ là id của bản ghi cuối trang,
+ * được mã hóa base64 để client coi như chuỗi mờ (opaque).
+ */
+public final class CursorUtils {
+
+    private static final String PREFIX = "id:";
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private CursorUtils() {
+    }
+
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Giải mã con trỏ, trả về null nếu là trang đầu (con trỏ rỗng)
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Pageable cho truy vấn keyset: luôn là trang 0 (không OFFSET), sắp xếp theo id
+     */
+    public static Pageable firstPage(int size, boolean ascending) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Sort sort = ascending ? Sort.by("id").ascending() : Sort.by("id").descending();
+        return PageRequest.of(0, size, sort);
+    }
+
+    public static <E, R> CursorPageResponse<R> toResponse(Slice<E> slice, Function<E, R> mapper,
+            Function<E, Long> idExtractor) {
+        List<E> entities = slice.getContent();
+        String nextCursor = slice.hasNext() && !entities.isEmpty()
+                ? encode(idExtractor.apply(entities.get(entities.size() - 1)))
+                : null;
+
+        return CursorPageResponse.<R>builder()
+                .content(entities.stream().map(mapper).toList())
+                .size(entities.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.tmdt.BEphonestore;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spring context tối thiểu cho các benchmark JMH cần DB thật: entity, repository, JdbcTemplate và
+ * transaction trên H2 in-memory, cộng các bean được truyền vào. Bỏ cấu hình SQL Server của application.properties.
+ */
+public final class JpaBenchmarkContext {
+
+    @Configuration
+    @ImportAutoConfiguration({ DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+            HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class, JdbcTemplateAutoConfiguration.class })
+    @EntityScan("com.tmdt.BEphonestore.entity")
+    @EnableJpaRepositories("com.tmdt.BEphonestore.repository")
+    static class Persistence {
+    }
+
+    private JpaBenchmarkContext() {
+    }
+
+    /**
+     * @param database   tên DB H2 (mỗi benchmark một DB)
+     * @param beans      các class bean cần thêm (service, store...)
+     * @param properties thuộc tính bổ sung dạng key=value, ghi đè mặc định
+     */
+    public static ConfigurableApplicationContext start(String database, Class<?>[] beans, String... properties) {
+        List<Class<?>> sources = new ArrayList<>();
+        sources.add(Persistence.class);
+        sources.addAll(Arrays.asList(beans));
+
+        List<String> args = new ArrayList<>(List.of(
+                // H2 mặc định trả lại kết quả cũ khi cùng truy vấn chạy lại mà dữ liệu chưa đổi: tắt để đo truy vấn thật
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.show-sql=false",
+                // application.properties bật log SQL ở DEBUG và ghi file log: tắt để không đo cả I/O log
+                "logging.level.root=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "logging.file.name="));
+        args.addAll(Arrays.asList(properties));
+
+        return new SpringApplicationBuilder(sources.toArray(new Class<?>[0]))
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                // Tham số dòng lệnh được ưu tiên hơn application.properties
+                .run(args.stream().map(arg -> "--" + arg).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,135 @@
+package com.tmdt.BEphonestore.cart;
+
+import com.tmdt.BEphonestore.JpaBenchmarkContext;
+import com.tmdt.BEphonestore.cache.ProductCache;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.entity.User;
+import com.tmdt.BEphonestore.mapper.ProductMapperImpl;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import com.tmdt.BEphonestore.repository.UserRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thêm vào giỏ rồi đọc lại giỏ (như POST /cart trả về giỏ) với JpaCartStore và MemoryCartStore trên H2 in-memory.
+ * Mỗi thread dùng một nhóm user riêng. Với MemoryCartStore, flush xuống DB chạy ngoài request nên được gọi
+ * sau mỗi iteration và không tính vào thời gian đo.
+ * Chạy: mvn test -Pbenchmark -Dtest=CartStoreBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 8, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(CartStoreBenchmark.THREADS)
+@Fork(1)
+public class CartStoreBenchmark {
+
+    static final int THREADS = 4;
+    private static final int USERS_PER_THREAD = 250;
+    private static final int PRODUCTS = 200;
+
+    @Param({ "jpa", "memory" })
+    private String store;
+
+    private ConfigurableApplicationContext context;
+    private CartStore cartStore;
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        Class<?>[] beans = store.equals("memory")
+                ? new Class<?>[] { MemoryCartStore.class, ProductMapperImpl.class, ProductCache.class }
+                : new Class<?>[] { JpaCartStore.class };
+        context = JpaBenchmarkContext.start("cart-" + store, beans, "app.cart.store=" + store);
+        cartStore = context.getBean(CartStore.class);
+
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder().name("Phones").build());
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        for (int i = 1; i <= PRODUCTS; i++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .name("Phone " + i)
+                    .price(BigDecimal.valueOf(1_000_000 + i))
+                    .stock(1000)
+                    .category(category)
+                    .build()).getId());
+        }
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        for (int i = 0; i < THREADS * USERS_PER_THREAD; i++) {
+            userIds.add(userRepository.save(User.builder()
+                    .username("buyer" + i)
+                    .email("buyer" + i + "@example.com")
+                    .build()).getId());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void flush() {
+        if (cartStore instanceof MemoryCartStore memoryCartStore) {
+            memoryCartStore.flush();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Buyer {
+        private final SplittableRandom random = new SplittableRandom();
+        private List<Long> users;
+
+        @Setup
+        public void setUp(CartStoreBenchmark benchmark) {
+            int thread = benchmark.threadCounter.getAndIncrement() % THREADS;
+            users = benchmark.userIds.subList(thread * USERS_PER_THREAD, (thread + 1) * USERS_PER_THREAD);
+        }
+    }
+
+    @Benchmark
+    public StoredCart addToCart(Buyer buyer) {
+        Long userId = buyer.users.get(buyer.random.nextInt(buyer.users.size()));
+        Long productId = productIds.get(buyer.random.nextInt(productIds.size()));
+        // Giữ số lượng nhỏ để giỏ không phình mãi
+        cartStore.update(userId, quantities -> quantities.merge(productId, 1, (current, added) -> current % 5 + added));
+        return cartStore.load(userId);
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CartStoreBenchmark.class.getName())
+                .build()).run();
+    }
+}
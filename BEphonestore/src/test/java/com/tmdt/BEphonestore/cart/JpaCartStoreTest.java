@@ -0,0 +1,145 @@
+package com.tmdt.BEphonestore.cart;
+
+import com.tmdt.BEphonestore.entity.Cart;
+import com.tmdt.BEphonestore.entity.CartItem;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.entity.User;
+import com.tmdt.BEphonestore.repository.CartItemRepository;
+import com.tmdt.BEphonestore.repository.CartRepository;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import com.tmdt.BEphonestore.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(JpaCartStore.class)
+class JpaCartStoreTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JpaCartStore cartStore;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void loadRendersTwentyItemCartInOneStatement() {
+        User user = entityManager.persist(User.builder().username("buyer").email("buyer@example.com").build());
+        Category category = entityManager.persist(Category.builder().name("Apple").build());
+        Cart cart = entityManager.persist(Cart.builder().user(user).build());
+        for (int i = 1; i <= 20; i++) {
+            Product product = entityManager.persist(Product.builder()
+                    .name("iPhone " + i)
+                    .price(BigDecimal.valueOf(1000 + i))
+                    .stock(10)
+                    .category(category)
+                    .build());
+            entityManager.persist(CartItem.builder().cart(cart).product(product).quantity(i).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        StoredCart stored = cartStore.load(user.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(cart.getId(), stored.getCartId());
+        assertEquals(20, stored.getLines().size());
+        assertEquals("iPhone 20", stored.getLines().get(19).getProductName());
+        assertEquals(20, stored.getLines().get(19).getQuantity());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentFirstAddsShareOneCart() throws Exception {
+        User user = userRepository.save(User.builder().username("racer").email("racer@example.com").build());
+        Category category = categoryRepository.save(Category.builder().name("Xiaomi").build());
+        Product first = productRepository.save(Product.builder()
+                .name("Redmi 13").price(BigDecimal.valueOf(3000)).stock(10).category(category).build());
+        Product second = productRepository.save(Product.builder()
+                .name("Redmi Note 13").price(BigDecimal.valueOf(5000)).stock(10).category(category).build());
+        AtomicBoolean raced = new AtomicBoolean();
+        AtomicReference<Throwable> otherFailure = new AtomicReference<>();
+
+        // Ngay sau khi request này không thấy giỏ, request khác tạo giỏ và thêm sản phẩm
+        CartRepository racingRepository = (CartRepository) Proxy.newProxyInstance(
+                CartRepository.class.getClassLoader(), new Class<?>[] { CartRepository.class },
+                (self, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(cartRepository, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                    if (method.getName().equals("findByUserId") && Optional.empty().equals(result)
+                            && raced.compareAndSet(false, true)) {
+                        Thread other = new Thread(() -> {
+                            try {
+                                cartStore.setQuantity(user.getId(), second.getId(), 2);
+                            } catch (Throwable ex) {
+                                otherFailure.set(ex);
+                            }
+                        });
+                        other.start();
+                        other.join();
+                    }
+                    return result;
+                });
+        JpaCartStore racingStore = new JpaCartStore(racingRepository, cartItemRepository, productRepository,
+                userRepository, transactionManager);
+
+        racingStore.setQuantity(user.getId(), first.getId(), 1);
+
+        assertTrue(raced.get());
+        assertNull(otherFailure.get());
+        StoredCart stored = cartStore.load(user.getId());
+        assertEquals(2, stored.getLines().size());
+    }
+}
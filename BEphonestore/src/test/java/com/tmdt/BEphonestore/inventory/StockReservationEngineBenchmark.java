@@ -0,0 +1,100 @@
+package com.tmdt.BEphonestore.inventory;
+
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.exception.InsufficientStockException;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thông lượng giữ hàng khi BUYERS người mua tranh một SKU (H2 in-memory).
+ * Chạy: mvn test -Pbenchmark -Dtest=StockReservationEngineBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.inventory.lock-timeout=PT60S"
+})
+@Import(StockReservationEngine.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationEngineBenchmark {
+
+    private static final int BUYERS = 500;
+    private static final int STOCK = 100;
+
+    @Autowired
+    private StockReservationEngine engine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void hotSkuCheckoutThroughput() throws Exception {
+        Category category = categoryRepository.save(Category.builder().name("Benchmark").build());
+        Product phone = productRepository.save(Product.builder()
+                .name("Hot phone")
+                .price(BigDecimal.valueOf(1000))
+                .stock(STOCK)
+                .category(category)
+                .build());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < BUYERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> engine.reserve(Map.of(phone.getId(), 1)));
+                        reserved.incrementAndGet();
+                    } catch (InsufficientStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            log.info("{} buyers: {} reserved, {} rejected in {} ms ({} checkouts/s)", BUYERS, reserved.get(),
+                    rejected.get(), Math.round(seconds * 1000), Math.round(BUYERS / seconds));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.tmdt.BEphonestore.inventory;
+
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.exception.InsufficientStockException;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.inventory.lock-timeout=PT60S"
+})
+@Import(StockReservationEngine.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationEngineTest {
+
+    private static final int BUYERS = 16;
+    private static final int STOCK = 10;
+
+    @Autowired
+    private StockReservationEngine engine;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Product createProduct(String name, int stock) {
+        Category category = categoryRepository.save(Category.builder().name(name + " category").build());
+        return productRepository.save(Product.builder()
+                .name(name)
+                .price(BigDecimal.valueOf(1000))
+                .stock(stock)
+                .category(category)
+                .build());
+    }
+
+    private void reserve(Map<Long, Integer> quantities) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> engine.reserve(quantities));
+    }
+
+    private int stockOf(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+
+    /**
+     * Chạy mọi đơn cùng lúc (mỗi đơn một thread), trả về số lần đặt thành công
+     */
+    private int runBuyers(List<Map<Long, Integer>> orders, AtomicInteger rejected) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(orders.size());
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map<Long, Integer> order : orders) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reserve(order);
+                        reserved.incrementAndGet();
+                    } catch (InsufficientStockException ex) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return reserved.get();
+    }
+
+    @Test
+    void concurrentBuyersOfOneSkuNeverOversell() throws Exception {
+        Product phone = createProduct("Hot phone", STOCK);
+        List<Map<Long, Integer>> orders = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            orders.add(Map.of(phone.getId(), 1));
+        }
+
+        AtomicInteger rejected = new AtomicInteger();
+        int reserved = runBuyers(orders, rejected);
+
+        assertEquals(STOCK, reserved);
+        assertEquals(BUYERS - STOCK, rejected.get());
+        assertEquals(0, stockOf(phone));
+    }
+
+    @Test
+    void ordersLockingSkusInOppositeOrderDoNotDeadlock() throws Exception {
+        Product a = createProduct("Phone A", 1000);
+        Product b = createProduct("Phone B", 1000);
+        List<Map<Long, Integer>> orders = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Map<Long, Integer> order = new LinkedHashMap<>();
+            Product first = i % 2 == 0 ? a : b;
+            Product second = i % 2 == 0 ? b : a;
+            order.put(first.getId(), 1);
+            order.put(second.getId(), 1);
+            orders.add(order);
+        }
+
+        int reserved = runBuyers(orders, new AtomicInteger());
+
+        assertEquals(BUYERS, reserved);
+        assertEquals(1000 - BUYERS, stockOf(a));
+        assertEquals(1000 - BUYERS, stockOf(b));
+    }
+
+    @Test
+    void failedLineRollsBackWholeOrder() {
+        Product inStock = createProduct("In stock", 5);
+        Product soldOut = createProduct("Sold out", 0);
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+                () -> reserve(Map.of(inStock.getId(), 2, soldOut.getId(), 1)));
+
+        assertEquals(soldOut.getId(), ex.getProductId());
+        assertEquals(5, stockOf(inStock));
+        assertEquals(0, stockOf(soldOut));
+    }
+}
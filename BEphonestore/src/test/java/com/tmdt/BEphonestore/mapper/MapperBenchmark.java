@@ -0,0 +1,242 @@
+package com.tmdt.BEphonestore.mapper;
+
+import com.tmdt.BEphonestore.dto.response.OrderDetailResponse;
+import com.tmdt.BEphonestore.dto.response.OrderItemResponse;
+import com.tmdt.BEphonestore.dto.response.OrderTrackingResponse;
+import com.tmdt.BEphonestore.dto.response.ProductResponse;
+import com.tmdt.BEphonestore.dto.response.UserResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Order;
+import com.tmdt.BEphonestore.entity.OrderItem;
+import com.tmdt.BEphonestore.entity.OrderTracking;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.entity.User;
+import com.tmdt.BEphonestore.enums.OrderStatus;
+import com.tmdt.BEphonestore.enums.PaymentMethod;
+import com.tmdt.BEphonestore.enums.PaymentStatus;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.enums.UserRole;
+import com.tmdt.BEphonestore.enums.UserStatus;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * So sánh ModelMapper (bản cũ), builder viết tay (bản cũ của OrderServiceImpl) và mapper MapStruct sinh sẵn.
+ * Chạy: mvn test -Pbenchmark -Dtest=MapperBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int ORDER_LINES = 10;
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ProductMapper productMapper = new ProductMapperImpl();
+    private final UserMapper userMapper = new UserMapperImpl();
+    private final OrderMapper orderMapper = new OrderMapperImpl();
+
+    private Product product;
+    private User user;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        Category category = Category.builder().id(1L).name("Samsung").createdAt(now).updatedAt(now).build();
+        product = Product.builder()
+                .id(1L)
+                .name("Galaxy S24 Ultra")
+                .description("Điện thoại flagship")
+                .price(new BigDecimal("33990000"))
+                .stock(25)
+                .imageUrl("/uploads/s24.jpg")
+                .specifications("RAM: 12GB, ROM: 256GB")
+                .status(ProductStatus.ACTIVE)
+                .category(category)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        user = User.builder()
+                .id(7L)
+                .username("buyer")
+                .password("{bcrypt}hash")
+                .email("buyer@example.com")
+                .fullName("Nguyễn Văn A")
+                .phone("0900000000")
+                .address("1 Đường Láng, Hà Nội")
+                .role(UserRole.CUSTOMER)
+                .status(UserStatus.ACTIVE)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        order = Order.builder()
+                .id(100L)
+                .orderCode("ORD100")
+                .user(user)
+                .totalPrice(new BigDecimal("339900000"))
+                .status(OrderStatus.PENDING)
+                .paymentMethod(PaymentMethod.COD)
+                .paymentStatus(PaymentStatus.UNPAID)
+                .shippingAddress(user.getAddress())
+                .recipientName(user.getFullName())
+                .recipientPhone(user.getPhone())
+                .orderItems(new ArrayList<>())
+                .trackings(new ArrayList<>())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        for (long i = 1; i <= ORDER_LINES; i++) {
+            order.getOrderItems().add(OrderItem.builder()
+                    .id(i)
+                    .order(order)
+                    .product(product)
+                    .productName(product.getName())
+                    .quantity(1)
+                    .price(product.getPrice())
+                    .subtotal(product.getPrice())
+                    .build());
+        }
+        order.getTrackings().add(OrderTracking.builder()
+                .id(1L)
+                .order(order)
+                .status(OrderStatus.PENDING)
+                .description("Đơn hàng đã được tạo")
+                .updatedBy("buyer")
+                .createdAt(now)
+                .build());
+    }
+
+    @Benchmark
+    public ProductResponse productModelMapper() {
+        ProductResponse response = modelMapper.map(product, ProductResponse.class);
+        response.setCategoryId(product.getCategory().getId());
+        response.setCategoryName(product.getCategory().getName());
+        return response;
+    }
+
+    @Benchmark
+    public ProductResponse productGenerated() {
+        return productMapper.toResponse(product);
+    }
+
+    @Benchmark
+    public UserResponse userModelMapper() {
+        return modelMapper.map(user, UserResponse.class);
+    }
+
+    @Benchmark
+    public UserResponse userGenerated() {
+        return userMapper.toResponse(user);
+    }
+
+    @Benchmark
+    public OrderDetailResponse orderDetailHandWritten() {
+        return HandWrittenOrderMapper.toDetailResponse(order);
+    }
+
+    @Benchmark
+    public OrderDetailResponse orderDetailGenerated() {
+        List<OrderItemResponse> items = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            items.add(orderMapper.toItemResponse(item));
+        }
+        List<OrderTrackingResponse> trackings = new ArrayList<>(order.getTrackings().size());
+        for (OrderTracking tracking : order.getTrackings()) {
+            trackings.add(orderMapper.toTrackingResponse(tracking));
+        }
+        return orderMapper.toDetailResponse(order, items, trackings);
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getName())
+                .build()).run();
+    }
+
+    /**
+     * Bản sao các builder viết tay trước khi chuyển sang MapStruct, giữ làm mốc so sánh
+     */
+    static final class HandWrittenOrderMapper {
+
+        private HandWrittenOrderMapper() {
+        }
+
+        static OrderDetailResponse toDetailResponse(Order order) {
+            return OrderDetailResponse.builder()
+                    .id(order.getId())
+                    .orderCode(order.getOrderCode())
+                    .userId(order.getUser().getId())
+                    .username(order.getUser().getUsername())
+                    .userEmail(order.getUser().getEmail())
+                    .userPhone(order.getUser().getPhone())
+                    .totalPrice(order.getTotalPrice())
+                    .status(order.getStatus())
+                    .paymentMethod(order.getPaymentMethod())
+                    .paymentStatus(order.getPaymentStatus())
+                    .shippingAddress(order.getShippingAddress())
+                    .recipientName(order.getRecipientName())
+                    .recipientPhone(order.getRecipientPhone())
+                    .note(order.getNote())
+                    .paypalOrderId(order.getPaypalOrderId())
+                    .paidAt(order.getPaidAt())
+                    .items(order.getOrderItems().stream()
+                            .map(HandWrittenOrderMapper::toItemResponse)
+                            .toList())
+                    .trackings(order.getTrackings().stream()
+                            .map(HandWrittenOrderMapper::toTrackingResponse)
+                            .toList())
+                    .createdAt(order.getCreatedAt())
+                    .updatedAt(order.getUpdatedAt())
+                    .build();
+        }
+
+        static OrderItemResponse toItemResponse(OrderItem item) {
+            return OrderItemResponse.builder()
+                    .id(item.getId())
+                    .productId(item.getProduct().getId())
+                    .productName(item.getProductName())
+                    .quantity(item.getQuantity())
+                    .price(item.getPrice())
+                    .subtotal(item.getSubtotal())
+                    .build();
+        }
+
+        static OrderTrackingResponse toTrackingResponse(OrderTracking tracking) {
+            return OrderTrackingResponse.builder()
+                    .id(tracking.getId())
+                    .orderId(tracking.getOrder().getId())
+                    .status(tracking.getStatus())
+                    .description(tracking.getDescription())
+                    .location(tracking.getLocation())
+                    .updatedBy(tracking.getUpdatedBy())
+                    .createdAt(tracking.getCreatedAt())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.repository.OrderCodeSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thông lượng cấp mã đơn của hai instance dùng chung bảng OrderCodeSequence (H2 in-memory).
+ * Chạy: mvn test -Pbenchmark -Dtest=OrderCodeAllocatorBenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderCodeAllocatorBenchmark {
+
+    private static final int THREADS = 8;
+    private static final int CODES_PER_THREAD = 25_000;
+
+    @Autowired
+    private OrderCodeSequenceRepository sequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void codesPerSecond() throws Exception {
+        OrderCodeAllocator[] nodes = {
+                new OrderCodeAllocator(sequenceRepository, transactionManager, 100),
+                new OrderCodeAllocator(sequenceRepository, transactionManager, 100)
+        };
+        LocalDate day = LocalDate.of(2030, 1, 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                OrderCodeAllocator node = nodes[t % nodes.length];
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < CODES_PER_THREAD; i++) {
+                        node.nextCode(day);
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            log.info("{} order codes in {} ms ({} codes/s)", THREADS * CODES_PER_THREAD,
+                    Math.round(seconds * 1000), Math.round(THREADS * CODES_PER_THREAD / seconds));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
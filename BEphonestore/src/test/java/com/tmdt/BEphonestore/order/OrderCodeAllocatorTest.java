@@ -0,0 +1,148 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.repository.OrderCodeSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderCodeAllocatorTest {
+
+    private static final int THREADS = 8;
+    private static final int CODES_PER_THREAD = 2_500; // mỗi instance dùng trọn 100 khối
+
+    @Autowired
+    private OrderCodeSequenceRepository sequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderCodeAllocator newNode() {
+        return new OrderCodeAllocator(sequenceRepository, transactionManager, 100);
+    }
+
+    @Test
+    void twoNodesHandOutUniqueCodesUnderContention() throws Exception {
+        // Hai instance dùng chung bảng OrderCodeSequence
+        OrderCodeAllocator[] nodes = { newNode(), newNode() };
+        LocalDate day = LocalDate.of(2030, 1, 1);
+        Set<String> codes = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                OrderCodeAllocator node = nodes[t % nodes.length];
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long previous = 0;
+                    for (int i = 0; i < CODES_PER_THREAD; i++) {
+                        String code = node.nextCode(day);
+                        // Mỗi instance cấp số tăng dần
+                        long sequence = Long.parseLong(code.substring("ORD20300101".length()));
+                        assertTrue(sequence > previous, code + " after " + previous);
+                        previous = sequence;
+                        codes.add(code);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Không trùng và không hở: hai instance dùng hết các khối đã lấy nên phủ đúng 1..N
+        assertEquals(THREADS * CODES_PER_THREAD, codes.size());
+        long[] sequences = codes.stream()
+                .mapToLong(code -> Long.parseLong(code.substring("ORD20300101".length())))
+                .sorted()
+                .toArray();
+        for (int i = 0; i < sequences.length; i++) {
+            assertEquals(i + 1, sequences[i]);
+        }
+    }
+
+    @Test
+    void nodesRacingTheFirstInsertOfADayGetDistinctBlocks() throws Exception {
+        LocalDate day = LocalDate.of(2030, 3, 1);
+        OrderCodeAllocator other = newNode();
+        AtomicReference<String> otherCode = new AtomicReference<>();
+        AtomicBoolean raced = new AtomicBoolean();
+
+        // Ngay sau khi instance này thấy chưa có dòng của ngày, instance kia chèn dòng và lấy khối đầu
+        OrderCodeSequenceRepository racingRepository = (OrderCodeSequenceRepository) Proxy.newProxyInstance(
+                OrderCodeSequenceRepository.class.getClassLoader(),
+                new Class<?>[] { OrderCodeSequenceRepository.class },
+                (self, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(sequenceRepository, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                    if (method.getName().equals("advance") && Integer.valueOf(0).equals(result)
+                            && raced.compareAndSet(false, true)) {
+                        Thread racer = new Thread(() -> otherCode.set(other.nextCode(day)));
+                        racer.start();
+                        racer.join();
+                    }
+                    return result;
+                });
+        OrderCodeAllocator node = new OrderCodeAllocator(racingRepository, transactionManager, 100);
+
+        String code = node.nextCode(day);
+
+        assertTrue(raced.get());
+        assertEquals("ORD2030030100001", otherCode.get());
+        assertEquals("ORD2030030100101", code);
+        assertEquals(201L, sequenceRepository.findNextValue("20300301"));
+    }
+
+    @Test
+    void refusesToAllocateInsideATransaction() {
+        OrderCodeAllocator node = newNode();
+
+        assertThrows(IllegalStateException.class, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> node.nextCode()));
+    }
+
+    @Test
+    void sequenceRestartsEachDay() {
+        OrderCodeAllocator node = newNode();
+
+        assertEquals("ORD2030020100001", node.nextCode(LocalDate.of(2030, 2, 1)));
+        assertEquals("ORD2030020100002", node.nextCode(LocalDate.of(2030, 2, 1)));
+        assertEquals("ORD2030020200001", node.nextCode(LocalDate.of(2030, 2, 2)));
+        // Instance khác nhận khối kế tiếp, không trùng
+        assertEquals("ORD2030020200101", newNode().nextCode(LocalDate.of(2030, 2, 2)));
+    }
+}
@@ -0,0 +1,200 @@
+package com.tmdt.BEphonestore.order;
+
+import com.tmdt.BEphonestore.entity.Order;
+import com.tmdt.BEphonestore.entity.OrderOutboxEvent;
+import com.tmdt.BEphonestore.entity.User;
+import com.tmdt.BEphonestore.enums.OrderEventType;
+import com.tmdt.BEphonestore.enums.OutboxState;
+import com.tmdt.BEphonestore.repository.OrderOutboxEventRepository;
+import com.tmdt.BEphonestore.repository.OrderRepository;
+import com.tmdt.BEphonestore.repository.UserRepository;
+import com.tmdt.BEphonestore.service.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    @Autowired
+    private OrderOutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final EmailService emailService = mock(EmailService.class);
+    private final List<Long> delivered = new CopyOnWriteArrayList<>();
+
+    private OrderOutbox outbox;
+    private OrderOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        outbox = new OrderOutbox(outboxEventRepository);
+        // Handler ghi lại chạy sau handler gửi mail: chỉ thấy sự kiện đã gửi mail thành công
+        OrderEventHandler recorder = (event, order) -> delivered.add(event.getId());
+        dispatcher = new OrderOutboxDispatcher(outboxEventRepository, orderRepository,
+                List.of(new OrderEmailHandler(emailService), recorder), transactionManager,
+                100, MAX_ATTEMPTS, RETRY_BACKOFF, LEASE, Duration.ofDays(7));
+    }
+
+    private Order createOrder(String name) {
+        User user = userRepository.save(User.builder()
+                .username(name)
+                .email(name + "@example.com")
+                .build());
+        return orderRepository.save(Order.builder()
+                .orderCode("ORD-" + name)
+                .user(user)
+                .build());
+    }
+
+    private OrderOutboxEvent record(Order order, OrderEventType eventType) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outbox.record(order, eventType, null));
+        return outboxEventRepository.findAll().stream()
+                .max((a, b) -> Long.compare(a.getId(), b.getId()))
+                .orElseThrow();
+    }
+
+    private OrderOutboxEvent reload(OrderOutboxEvent event) {
+        return outboxEventRepository.findById(event.getId()).orElseThrow();
+    }
+
+    /**
+     * Đưa thời điểm thử lại / hết lease về quá khứ thay vì chờ thật
+     */
+    private void makeDue(OrderOutboxEvent event) {
+        OrderOutboxEvent current = reload(event);
+        current.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(current);
+    }
+
+    private void drain() {
+        while (dispatcher.dispatchBatch() > 0) {
+            // Gửi đến khi không còn sự kiện đến hạn
+        }
+    }
+
+    @Test
+    void claimedEventIsLeasedUntilTheLeaseExpires() {
+        OrderOutboxEvent event = record(createOrder("lease"), OrderEventType.ORDER_PLACED);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Một instance khác nhận sự kiện rồi chết trước khi gửi xong
+        int claimed = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.claim(List.of(event.getId()), "other-node", now.plus(LEASE), now));
+        assertEquals(1, claimed);
+        int claimedAgain = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.claim(List.of(event.getId()), "this-node", now.plus(LEASE), now));
+        assertEquals(0, claimedAgain);
+
+        assertEquals(0, dispatcher.dispatchBatch());
+        assertTrue(delivered.isEmpty());
+
+        makeDue(event);
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        assertEquals(List.of(event.getId()), delivered);
+        OrderOutboxEvent processed = reload(event);
+        assertEquals(OutboxState.PROCESSED, processed.getState());
+        assertNull(processed.getClaimToken());
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    void eventsOfOneOrderAreDeliveredInOrder() {
+        Order first = createOrder("first");
+        Order second = createOrder("second");
+        OrderOutboxEvent placed = record(first, OrderEventType.ORDER_PLACED);
+        OrderOutboxEvent otherPlaced = record(second, OrderEventType.ORDER_PLACED);
+        OrderOutboxEvent statusChanged = record(first, OrderEventType.STATUS_CHANGED);
+        OrderOutboxEvent cancelled = record(first, OrderEventType.ORDER_CANCELLED);
+
+        // Mail xác nhận của đơn đầu lỗi một lần: các sự kiện sau của đơn đó phải chờ, đơn khác thì không
+        doThrow(new MailSendException("SMTP unavailable"))
+                .doNothing()
+                .when(emailService).sendOrderConfirmationEmail(anyString(), any(Order.class));
+        drain();
+
+        assertEquals(List.of(otherPlaced.getId()), delivered);
+        assertEquals(OutboxState.PENDING, reload(statusChanged).getState());
+        assertEquals(OutboxState.PENDING, reload(cancelled).getState());
+
+        makeDue(placed);
+        drain();
+
+        assertEquals(List.of(otherPlaced.getId(), placed.getId(), statusChanged.getId(), cancelled.getId()),
+                delivered);
+    }
+
+    @Test
+    void failedEventIsRetriedWithBackoffThenGivenUp() {
+        Order order = createOrder("retry");
+        OrderOutboxEvent placed = record(order, OrderEventType.ORDER_PLACED);
+        OrderOutboxEvent statusChanged = record(order, OrderEventType.STATUS_CHANGED);
+        doThrow(new MailSendException("SMTP unavailable"))
+                .when(emailService).sendOrderConfirmationEmail(anyString(), any(Order.class));
+        doNothing().when(emailService).sendOrderStatusUpdateEmail(anyString(), any(Order.class));
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            LocalDateTime before = LocalDateTime.now();
+            assertEquals(1, dispatcher.dispatchBatch());
+
+            OrderOutboxEvent retried = reload(placed);
+            assertEquals(OutboxState.PENDING, retried.getState());
+            assertEquals(attempt, retried.getAttempts());
+            assertEquals("SMTP unavailable", retried.getLastError());
+            assertNull(retried.getClaimToken());
+            // Chờ 30s, 60s, ... sau mỗi lần lỗi
+            Duration backoff = RETRY_BACKOFF.multipliedBy(1L << (attempt - 1));
+            assertFalse(retried.getNextAttemptAt().isBefore(before.plus(backoff)));
+            assertTrue(retried.getNextAttemptAt().isBefore(LocalDateTime.now().plus(backoff).plusSeconds(1)));
+
+            assertEquals(0, dispatcher.dispatchBatch());
+            makeDue(placed);
+        }
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        OrderOutboxEvent failed = reload(placed);
+        assertEquals(OutboxState.FAILED, failed.getState());
+        assertEquals(MAX_ATTEMPTS, failed.getAttempts());
+
+        // Sự kiện bỏ cuộc không chặn các sự kiện sau của đơn
+        drain();
+        assertEquals(List.of(statusChanged.getId()), delivered);
+    }
+}
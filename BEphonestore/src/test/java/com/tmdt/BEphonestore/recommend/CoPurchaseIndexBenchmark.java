@@ -0,0 +1,85 @@
+package com.tmdt.BEphonestore.recommend;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dựng ma trận mua chung và top-K từ 1 triệu dòng hàng giả lập trên 5k sản phẩm (không cần DB).
+ * Chạy: mvn test -Pbenchmark -Dtest=CoPurchaseIndexBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx1g")
+public class CoPurchaseIndexBenchmark {
+
+    private static final int ORDER_ITEMS = 1_000_000;
+    private static final int PRODUCTS = 5_000;
+    private static final int MAX_LINES_PER_ORDER = 6;
+
+    private int[][] baskets;
+    private CoPurchaseIndex.Matrix built;
+
+    @Setup
+    public void setUp() {
+        // Sản phẩm phổ biến xuất hiện nhiều hơn (phân bố lệch về id nhỏ), seed cố định để các lần chạy giống nhau
+        Random random = new Random(42);
+        List<int[]> orders = new ArrayList<>();
+        int items = 0;
+        while (items < ORDER_ITEMS) {
+            int lines = 1 + random.nextInt(MAX_LINES_PER_ORDER);
+            int[] productIds = new int[lines];
+            for (int i = 0; i < lines; i++) {
+                productIds[i] = 1 + (int) (PRODUCTS * Math.pow(random.nextDouble(), 2));
+            }
+            orders.add(Arrays.stream(productIds).distinct().toArray());
+            items += lines;
+        }
+        baskets = orders.toArray(new int[0][]);
+        built = build();
+    }
+
+    @Benchmark
+    public CoPurchaseIndex.Matrix build() {
+        CoPurchaseIndex.Matrix matrix = new CoPurchaseIndex.Matrix();
+        for (int[] basket : baskets) {
+            matrix.addBasket(basket);
+        }
+        return matrix;
+    }
+
+    @Benchmark
+    public Object topKForAll() {
+        return built.topKForAll();
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CoPurchaseIndexBenchmark.class.getName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.tmdt.BEphonestore.search;
+
+import com.tmdt.BEphonestore.dto.request.ProductFilterRequest;
+import com.tmdt.BEphonestore.dto.response.SuggestionResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.event.ProductChangedEvent;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.OrderItemRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductIndexManagerTest {
+
+    private final Category category = Category.builder().id(1L).name("Samsung").build();
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final SuggestionIndex suggestionIndex = new SuggestionIndex(categoryRepository, orderItemRepository);
+    private final FacetIndex facetIndex = new FacetIndex();
+    private final SpecIndex specIndex = new SpecIndex();
+    private final ProductIndexManager manager = new ProductIndexManager(
+            List.of(searchIndex, suggestionIndex, facetIndex, specIndex), productRepository);
+
+    private Product product(long id, String name, long price, String specifications) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .price(BigDecimal.valueOf(price))
+                .stock(10)
+                .status(ProductStatus.ACTIVE)
+                .specifications(specifications)
+                .category(category)
+                .build();
+    }
+
+    private List<Long> idsInPriceRange(long min, long max) {
+        ProductFilterRequest filter = new ProductFilterRequest();
+        filter.setMinPrice(BigDecimal.valueOf(min));
+        filter.setMaxPrice(BigDecimal.valueOf(max));
+        return facetIndex.query(filter, null, null, 0, 10).getIds();
+    }
+
+    @Test
+    void changesCommittedDuringRebuildSurviveTheSwap() {
+        Product stale = product(1L, "Galaxy A15", 4_000_000L, "RAM: 4GB");
+        Product removed = product(2L, "Galaxy M34", 6_000_000L, "RAM: 6GB");
+        Product updated = product(1L, "Galaxy S24", 22_000_000L, "RAM: 12GB");
+
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        // Bản chụp được đọc trước khi hai thay đổi commit; sự kiện của chúng đến khi quét còn đang chạy
+        when(productRepository.findChunkWithCategory(eq(0L), any())).thenAnswer(invocation -> {
+            manager.onProductChanged(ProductChangedEvent.of(updated, ProductChangedEvent.ChangeType.UPDATED));
+            manager.onProductChanged(ProductChangedEvent.of(removed, ProductChangedEvent.ChangeType.DELETED));
+            return List.of(stale, removed);
+        });
+
+        assertEquals(2, manager.rebuildAll());
+
+        assertEquals(List.of(1L), searchIndex.searchIds("s24"));
+        assertTrue(searchIndex.searchIds("a15").isEmpty());
+        assertTrue(searchIndex.searchIds("m34").isEmpty());
+
+        List<String> suggestions = suggestionIndex.suggest("galaxy", 10).stream()
+                .map(SuggestionResponse::getText).toList();
+        assertEquals(List.of("Galaxy S24"), suggestions);
+
+        assertEquals(List.of(1L), idsInPriceRange(20_000_000L, 30_000_000L));
+        assertTrue(idsInPriceRange(0L, 10_000_000L).isEmpty());
+
+        assertTrue(specIndex.match(List.of("ram>=8")).contains(1));
+        assertFalse(specIndex.match(List.of("ram>=4")).contains(2));
+    }
+
+    @Test
+    void changesAfterRebuildAreAppliedOnce() {
+        Product phone = product(1L, "Galaxy A15", 4_000_000L, "RAM: 4GB");
+        when(categoryRepository.findAll()).thenReturn(List.of(category));
+        when(productRepository.findChunkWithCategory(eq(0L), any())).thenReturn(List.of(phone));
+        manager.rebuildAll();
+
+        manager.onProductChanged(ProductChangedEvent.of(product(1L, "Galaxy A25", 5_500_000L, "RAM: 8GB"),
+                ProductChangedEvent.ChangeType.UPDATED));
+
+        assertEquals(List.of(1L), searchIndex.searchIds("a25"));
+        assertEquals(List.of(1L), idsInPriceRange(5_000_000L, 6_000_000L));
+        assertTrue(specIndex.match(List.of("ram>=8")).contains(1));
+    }
+}
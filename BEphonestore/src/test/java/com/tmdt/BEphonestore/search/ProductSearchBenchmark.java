@@ -0,0 +1,130 @@
+package com.tmdt.BEphonestore.search;
+
+import com.tmdt.BEphonestore.JpaBenchmarkContext;
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trang đầu kết quả tìm kiếm (20 sản phẩm kèm tổng số): inverted index + nạp summary theo id,
+ * so với truy vấn JPQL LIKE cũ trên H2 in-memory. Chế độ SampleTime in ra p50/p99.
+ * "redmi" khớp khoảng 20% sản phẩm, "ultra" khoảng 1%.
+ * Chạy: mvn test -Pbenchmark -Dtest=ProductSearchBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ProductSearchBenchmark {
+
+    private static final String[] LINES = { "Samsung Galaxy", "Apple iPhone", "Xiaomi Redmi", "Oppo Reno", "Vivo Y" };
+    private static final String INSERT_SQL = "INSERT INTO product (name, description, price, stock, category_id, " +
+            "specifications, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 1000;
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 20);
+
+    @Param({ "10000", "100000" })
+    private int products;
+
+    @Param({ "redmi", "ultra" })
+    private String keyword;
+
+    private ConfigurableApplicationContext context;
+    private ProductSearchIndex searchIndex;
+    private ProductRepository productRepository;
+
+    @Setup
+    public void setUp() {
+        context = JpaBenchmarkContext.start("product-search-" + products,
+                new Class<?>[] { ProductSearchIndex.class });
+        searchIndex = context.getBean(ProductSearchIndex.class);
+        productRepository = context.getBean(ProductRepository.class);
+        Long categoryId = context.getBean(CategoryRepository.class).save(Category.builder().name("Phones").build()).getId();
+
+        Random random = new Random(42);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>(products);
+        for (int i = 1; i <= products; i++) {
+            String line = LINES[i % LINES.length];
+            // Khoảng 1% là bản Ultra
+            String name = line + " " + (i % 500) + (random.nextInt(100) == 0 ? " Ultra" : "");
+            rows.add(new Object[] { name,
+                    "Điện thoại " + line + " chính hãng, pin trâu, màn hình " + (6 + random.nextInt(2)) + " inch",
+                    1_000_000 + random.nextInt(40_000_000), random.nextInt(500), categoryId,
+                    "RAM: " + (4 << random.nextInt(3)) + "GB, ROM: " + (64 << random.nextInt(4)) + "GB",
+                    ProductStatus.ACTIVE.name(), now, now });
+        }
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+
+        ProductIndex.Rebuild rebuild = searchIndex.beginRebuild();
+        jdbcTemplate.query("SELECT id, name, description, specifications, status FROM product", resultSet -> {
+            rebuild.add(Product.builder()
+                    .id(resultSet.getLong("id"))
+                    .name(resultSet.getString("name"))
+                    .description(resultSet.getString("description"))
+                    .specifications(resultSet.getString("specifications"))
+                    .status(ProductStatus.valueOf(resultSet.getString("status")))
+                    .build());
+        });
+        rebuild.finish();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductSummaryResponse> index() {
+        ProductSearchIndex.SearchResult result = searchIndex.search(keyword, 0, FIRST_PAGE.getPageSize());
+        return productRepository.findSummariesByIdIn(result.getIds());
+    }
+
+    @Benchmark
+    public Page<ProductSummaryResponse> jpqlLike() {
+        return productRepository.searchSummariesByStatus(keyword, ProductStatus.ACTIVE, FIRST_PAGE);
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductSearchBenchmark.class.getName())
+                .build()).run();
+    }
+}
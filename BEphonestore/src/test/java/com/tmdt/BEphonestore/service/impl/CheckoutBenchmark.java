@@ -0,0 +1,140 @@
+package com.tmdt.BEphonestore.service.impl;
+
+import com.tmdt.BEphonestore.JpaBenchmarkContext;
+import com.tmdt.BEphonestore.cart.CartStore;
+import com.tmdt.BEphonestore.cart.JpaCartStore;
+import com.tmdt.BEphonestore.dto.request.OrderRequest;
+import com.tmdt.BEphonestore.dto.response.OrderDetailResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.entity.User;
+import com.tmdt.BEphonestore.enums.PaymentMethod;
+import com.tmdt.BEphonestore.inventory.StockReservationEngine;
+import com.tmdt.BEphonestore.mapper.OrderMapperImpl;
+import com.tmdt.BEphonestore.order.OrderCodeAllocator;
+import com.tmdt.BEphonestore.order.OrderOutbox;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import com.tmdt.BEphonestore.repository.UserRepository;
+import com.tmdt.BEphonestore.service.OrderService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đặt một đơn 10 dòng từ giỏ hàng trên H2 in-memory, với Hibernate gửi từng câu lệnh (batch_size=1)
+ * và gửi theo batch (batch_size=50 như application.properties). Giỏ được nạp lại trước mỗi lần đặt, ngoài phần đo.
+ * Số câu lệnh gửi xuống DB mỗi đơn (một executeBatch tính một lần) được in ra khi kết thúc.
+ * Chạy: mvn test -Pbenchmark -Dtest=CheckoutBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 25, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    private static final int LINES = 10;
+
+    @Param({ "1", "50" })
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private CartStore cartStore;
+    private OrderCodeAllocator orderCodeAllocator;
+    private TransactionTemplate transactionTemplate;
+    private final List<Long> productIds = new ArrayList<>();
+    private Long buyerId;
+    private final OrderRequest request = new OrderRequest("1 Đường Láng, Hà Nội", "Buyer", "0900000000", null,
+            PaymentMethod.COD);
+
+    private long statements;
+    private long orders;
+
+    @Setup
+    public void setUp() {
+        context = JpaBenchmarkContext.start("checkout-" + batchSize,
+                new Class<?>[] { OrderServiceImpl.class, JpaCartStore.class, StockReservationEngine.class,
+                        OrderCodeAllocator.class, OrderOutbox.class, OrderMapperImpl.class,
+                        OrderServiceImplTest.RoundTripCounter.class },
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        orderService = context.getBean(OrderService.class);
+        cartStore = context.getBean(CartStore.class);
+        orderCodeAllocator = context.getBean(OrderCodeAllocator.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder().name("Phones").build());
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        for (int i = 1; i <= LINES; i++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .name("Phone " + i)
+                    .price(BigDecimal.valueOf(1_000_000 + i))
+                    .stock(Integer.MAX_VALUE)
+                    .category(category)
+                    .build()).getId());
+        }
+        buyerId = context.getBean(UserRepository.class)
+                .save(User.builder().username("buyer").email("buyer@example.com").build()).getId();
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        cartStore.update(buyerId, quantities -> {
+            for (int i = 0; i < productIds.size(); i++) {
+                quantities.put(productIds.get(i), i % 3 + 1);
+            }
+        });
+        OrderServiceImplTest.RoundTripCounter.roundTrips.set(0);
+    }
+
+    @TearDown(Level.Invocation)
+    public void countStatements() {
+        statements += OrderServiceImplTest.RoundTripCounter.roundTrips.get();
+        orders++;
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("batch_size=%d: %.1f statements per order%n", batchSize, (double) statements / orders);
+        context.close();
+    }
+
+    @Benchmark
+    public OrderDetailResponse checkout() {
+        String orderCode = orderCodeAllocator.nextCode();
+        return transactionTemplate.execute(status -> orderService.placeOrder(buyerId, request, orderCode));
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CheckoutBenchmark.class.getName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,230 @@
+package com.tmdt.BEphonestore.service.impl;
+
+import com.tmdt.BEphonestore.cart.CartLine;
+import com.tmdt.BEphonestore.cart.JpaCartStore;
+import com.tmdt.BEphonestore.cart.StoredCart;
+import com.tmdt.BEphonestore.dto.request.OrderRequest;
+import com.tmdt.BEphonestore.dto.response.OrderDetailResponse;
+import com.tmdt.BEphonestore.entity.Cart;
+import com.tmdt.BEphonestore.entity.CartItem;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.entity.Product;
+import com.tmdt.BEphonestore.entity.User;
+import com.tmdt.BEphonestore.enums.PaymentMethod;
+import com.tmdt.BEphonestore.exception.BadRequestException;
+import com.tmdt.BEphonestore.inventory.StockReservationEngine;
+import com.tmdt.BEphonestore.mapper.OrderMapperImpl;
+import com.tmdt.BEphonestore.order.OrderCodeAllocator;
+import com.tmdt.BEphonestore.order.OrderOutbox;
+import com.tmdt.BEphonestore.order.OrderPlacement;
+import com.tmdt.BEphonestore.repository.CartItemRepository;
+import com.tmdt.BEphonestore.repository.CartRepository;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import com.tmdt.BEphonestore.repository.UserRepository;
+import com.tmdt.BEphonestore.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+@Import({ OrderServiceImpl.class, JpaCartStore.class, StockReservationEngine.class, OrderCodeAllocator.class,
+        OrderOutbox.class, OrderMapperImpl.class, OrderServiceImplTest.RoundTripCounter.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceImplTest {
+
+    private static final int LINES = 10;
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    /**
+     * Đếm mọi lần gửi câu lệnh xuống DB (một executeBatch tính là một round trip)
+     */
+    @TestConfiguration
+    static class RoundTripCounter {
+
+        static final AtomicInteger roundTrips = new AtomicInteger();
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (self, method, args) -> {
+                if (EXECUTE_METHODS.contains(method.getName())) {
+                    roundTrips.incrementAndGet();
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+                if (result instanceof Connection connection) {
+                    return proxy(Connection.class, connection);
+                }
+                if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                    return proxy((Class<Statement>) method.getReturnType(), statement);
+                }
+                return result;
+            });
+        }
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderCodeAllocator orderCodeAllocator;
+
+    @SpyBean
+    private JpaCartStore cartStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long createBuyerWithCart(String username, List<Product> products) {
+        User user = userRepository.save(User.builder().username(username).email(username + "@example.com").build());
+        Cart cart = cartRepository.save(Cart.builder().user(user).build());
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < products.size(); i++) {
+            items.add(CartItem.builder().cart(cart).product(products.get(i)).quantity(i % 3 + 1).build());
+        }
+        cartItemRepository.saveAll(items);
+        return user.getId();
+    }
+
+    private OrderDetailResponse placeOrder(Long userId) {
+        OrderRequest request = new OrderRequest("1 Đường Láng, Hà Nội", "Buyer", "0900000000", null,
+                PaymentMethod.COD);
+        String orderCode = orderCodeAllocator.nextCode();
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> orderService.placeOrder(userId, request, orderCode));
+    }
+
+    @Test
+    void tenLineOrderBatchesItsWrites() {
+        Category category = categoryRepository.save(Category.builder().name("Phones").build());
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= LINES; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .name("Phone " + i)
+                    .price(BigDecimal.valueOf(1000 + i))
+                    .stock(10_000)
+                    .category(category)
+                    .build()));
+        }
+        Long firstBuyer = createBuyerWithCart("buyer1", products);
+        Long secondBuyer = createBuyerWithCart("buyer2", products);
+
+        // Lần đầu: lấy khối mã đơn và khối id sequence
+        placeOrder(firstBuyer);
+
+        RoundTripCounter.roundTrips.set(0);
+        OrderDetailResponse order = placeOrder(secondBuyer);
+        int perOrder = RoundTripCounter.roundTrips.get();
+
+        assertEquals(LINES, order.getItems().size());
+        assertEquals(1, order.getTrackings().size());
+        assertEquals(10_000 - 2, productRepository.findById(products.get(0).getId()).orElseThrow().getStock());
+        assertTrue(perOrder <= 15, "expected batched writes, got " + perOrder + " statements");
+    }
+
+    @Test
+    void batchReservesTheUnionOfItsOrdersOnce() {
+        Category category = categoryRepository.save(Category.builder().name("Tablets").build());
+        Product first = productRepository.save(Product.builder()
+                .name("Tab A").price(BigDecimal.valueOf(5000)).stock(5).category(category).build());
+        Product second = productRepository.save(Product.builder()
+                .name("Tab B").price(BigDecimal.valueOf(7000)).stock(5).category(category).build());
+        // Hai giỏ chứa cùng sản phẩm theo thứ tự ngược nhau
+        Long buyerA = createBuyerWithCart("tablet-a", List.of(first, second));
+        Long buyerB = createBuyerWithCart("tablet-b", List.of(second, first));
+        OrderRequest request = new OrderRequest("1 Đường Láng, Hà Nội", "Buyer", "0900000000", null,
+                PaymentMethod.COD);
+
+        List<OrderDetailResponse> orders = orderService.placeOrders(List.of(
+                new OrderPlacement(buyerA, request, orderCodeAllocator.nextCode()),
+                new OrderPlacement(buyerB, request, orderCodeAllocator.nextCode())));
+
+        assertEquals(2, orders.size());
+        assertEquals(5 - 1 - 2, productRepository.findById(first.getId()).orElseThrow().getStock());
+        assertEquals(5 - 2 - 1, productRepository.findById(second.getId()).orElseThrow().getStock());
+
+        // Tổng của lô vượt tồn kho: cả lô rollback, giỏ còn nguyên
+        Long buyerC = createBuyerWithCart("tablet-c", List.of(first));
+        Long buyerD = createBuyerWithCart("tablet-d", List.of(second, first));
+        List<OrderPlacement> tooMany = List.of(
+                new OrderPlacement(buyerC, request, orderCodeAllocator.nextCode()),
+                new OrderPlacement(buyerD, request, orderCodeAllocator.nextCode()));
+        assertThrows(BadRequestException.class, () -> orderService.placeOrders(tooMany));
+        assertEquals(2, productRepository.findById(first.getId()).orElseThrow().getStock());
+        assertEquals(2, productRepository.findById(second.getId()).orElseThrow().getStock());
+        Long cartId = cartRepository.findByUserId(buyerC).orElseThrow().getId();
+        assertEquals(1, cartItemRepository.findByCartId(cartId).size());
+    }
+
+    @Test
+    void cartLineOfADeletedProductIsRejected() {
+        User user = userRepository.save(User.builder().username("ghost").email("ghost@example.com").build());
+        // MemoryCartStore có thể còn giữ dòng của sản phẩm đã xóa đến lần flush sau
+        doReturn(new StoredCart(null, List.of(new CartLine(999_999L, 999_999L, 1, "Ghost phone", null,
+                BigDecimal.ONE)))).when(cartStore).load(user.getId());
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> placeOrder(user.getId()));
+        assertTrue(ex.getMessage().contains("Ghost phone"), ex.getMessage());
+    }
+}
@@ -0,0 +1,138 @@
+package com.tmdt.BEphonestore.service.impl;
+
+import com.tmdt.BEphonestore.JpaBenchmarkContext;
+import com.tmdt.BEphonestore.dto.response.ProductImportResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.enums.ExportFormat;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.service.FileStorageService;
+import com.tmdt.BEphonestore.service.ProductImportService;
+import com.tmdt.BEphonestore.util.CsvReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nhập sản phẩm từ CSV trên H2 in-memory: chỉ đọc file, và cả luồng đọc - kiểm tra - ghi JDBC batch.
+ * Số tuyệt đối trên H2 không đại diện cho SQL Server (không có round trip mạng).
+ * Chạy: mvn test -Pbenchmark -Dtest=ProductImportBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ProductImportBenchmark {
+
+    private static final String[] BRANDS = { "Samsung", "Apple", "Xiaomi", "Oppo", "Vivo" };
+
+    @Param({ "10000", "100000" })
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductImportService importService;
+    private JdbcTemplate jdbcTemplate;
+    private byte[] csv;
+
+    @Configuration
+    static class NoImages {
+        @Bean
+        FileStorageService fileStorageService() {
+            return Mockito.mock(FileStorageService.class);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = JpaBenchmarkContext.start("product-import",
+                new Class<?>[] { JacksonAutoConfiguration.class, NoImages.class, ProductImportServiceImpl.class });
+        importService = context.getBean(ProductImportService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        CategoryRepository categoryRepository = context.getBean(CategoryRepository.class);
+        for (String brand : BRANDS) {
+            categoryRepository.save(Category.builder().name(brand).build());
+        }
+
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder("name,description,price,stock,categoryName,specifications\n");
+        for (int i = 1; i <= rows; i++) {
+            String brand = BRANDS[i % BRANDS.length];
+            builder.append(brand).append(" Phone ").append(i).append(',')
+                    .append("\"Điện thoại ").append(brand).append(", pin trâu, màn hình đẹp\",")
+                    .append(1_000_000 + random.nextInt(40_000_000)).append(',')
+                    .append(random.nextInt(500)).append(',')
+                    .append(brand).append(',')
+                    .append("\"RAM: ").append(4 << random.nextInt(3)).append("GB, ROM: ")
+                    .append(64 << random.nextInt(4)).append("GB\"\n");
+        }
+        csv = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearProducts() {
+        jdbcTemplate.update("DELETE FROM product");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int parse() throws IOException {
+        CsvReader reader = new CsvReader(new InputStreamReader(new ByteArrayInputStream(csv), StandardCharsets.UTF_8));
+        int count = 0;
+        while (reader.next() != null) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public ProductImportResponse importCsv() {
+        ProductImportResponse response = importService.importProducts(
+                new MockMultipartFile("file", "products.csv", "text/csv", csv), ExportFormat.CSV, null);
+        if (response.getCreated() != rows) {
+            throw new IllegalStateException("Expected " + rows + " products but created " + response.getCreated());
+        }
+        return response;
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductImportBenchmark.class.getName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,117 @@
+package com.tmdt.BEphonestore.util;
+
+import com.tmdt.BEphonestore.JpaBenchmarkContext;
+import com.tmdt.BEphonestore.dto.response.ProductSummaryResponse;
+import com.tmdt.BEphonestore.entity.Category;
+import com.tmdt.BEphonestore.enums.ProductStatus;
+import com.tmdt.BEphonestore.repository.CategoryRepository;
+import com.tmdt.BEphonestore.repository.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Danh sách sản phẩm mới nhất, trang 1 và trang 5000 (20 sản phẩm/trang) trên 120k sản phẩm:
+ * phân trang OFFSET (kèm COUNT) so với keyset theo id trên H2 in-memory.
+ * Số tuyệt đối trên H2 không đại diện cho SQL Server.
+ * Chạy: mvn test -Pbenchmark -Dtest=ProductPaginationBenchmark
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ProductPaginationBenchmark {
+
+    private static final int PRODUCTS = 120_000;
+    private static final int PAGE_SIZE = 20;
+    private static final String INSERT_SQL = "INSERT INTO product (name, price, stock, category_id, status, " +
+            "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({ "1", "5000" })
+    private int page;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private PageRequest offsetPage;
+    // Id cuối của trang trước, như cursor client gửi lên
+    private Long cursorId;
+
+    @Setup
+    public void setUp() {
+        context = JpaBenchmarkContext.start("product-pagination", new Class<?>[0]);
+        productRepository = context.getBean(ProductRepository.class);
+        Long categoryId = context.getBean(CategoryRepository.class).save(Category.builder().name("Phones").build()).getId();
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int i = 1; i <= PRODUCTS; i++) {
+            rows.add(new Object[] { "Phone " + i, 1_000_000 + i, 100, categoryId, ProductStatus.ACTIVE.name(), now, now });
+            if (rows.size() == BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        }
+
+        offsetPage = PageRequest.of(page - 1, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "id"));
+        cursorId = page == 1
+                ? Long.MAX_VALUE
+                : jdbcTemplate.queryForObject("SELECT id FROM product ORDER BY id DESC OFFSET ? ROWS FETCH NEXT 1 ROWS ONLY",
+                        Long.class, (page - 1) * PAGE_SIZE - 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<ProductSummaryResponse> offset() {
+        return productRepository.findSummariesByStatus(ProductStatus.ACTIVE, offsetPage);
+    }
+
+    @Benchmark
+    public Slice<ProductSummaryResponse> keyset() {
+        return productRepository.findSummariesByStatusAndIdLessThan(ProductStatus.ACTIVE, cursorId,
+                CursorUtils.firstPage(PAGE_SIZE, false));
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProductPaginationBenchmark.class.getName())
+                .build()).run();
+    }
+}
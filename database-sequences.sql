@@ -0,0 +1,71 @@
+/*
+ * Chuyển id của cart_item, order_item, order_tracking từ IDENTITY sang sequence (INCREMENT BY 50)
+ * để Hibernate gom INSERT thành JDBC batch. Chỉ cần cho DB tạo từ database.sql cũ.
+ *
+ * Chạy một lần, trước khi khởi động bản mới (ddl-auto=update sẽ tạo sequence bắt đầu từ 1 nếu chưa có).
+ * Nên tạm dừng ứng dụng: mỗi bảng được dựng lại khóa chính trong một transaction.
+ * Chạy lại không sao: bảng đã bỏ IDENTITY được bỏ qua, sequence chỉ được đẩy lên khi đang thấp hơn MAX(id).
+ */
+USE [phonestoredb]
+GO
+SET XACT_ABORT ON
+GO
+BEGIN TRANSACTION
+
+DECLARE @tables TABLE (name sysname);
+INSERT INTO @tables VALUES (N'cart_item'), (N'order_item'), (N'order_tracking');
+
+DECLARE @table sysname, @pk sysname, @start bigint, @current bigint, @sql nvarchar(max);
+DECLARE tables CURSOR LOCAL FAST_FORWARD FOR SELECT name FROM @tables;
+OPEN tables;
+FETCH NEXT FROM tables INTO @table;
+WHILE @@FETCH_STATUS = 0
+BEGIN
+    -- Không ALTER bỏ IDENTITY được: thêm cột mới, chép id, đổi tên rồi dựng lại khóa chính
+    IF COLUMNPROPERTY(OBJECT_ID(N'dbo.' + @table), 'id', 'IsIdentity') = 1
+    BEGIN
+        SELECT @pk = name FROM sys.key_constraints
+        WHERE parent_object_id = OBJECT_ID(N'dbo.' + @table) AND type = 'PK';
+
+        SET @sql = N'ALTER TABLE dbo.' + QUOTENAME(@table) + N' ADD id_new bigint NULL;';
+        EXEC (@sql);
+        SET @sql = N'UPDATE dbo.' + QUOTENAME(@table) + N' SET id_new = id;'
+                + N' ALTER TABLE dbo.' + QUOTENAME(@table) + N' ALTER COLUMN id_new bigint NOT NULL;'
+                + N' ALTER TABLE dbo.' + QUOTENAME(@table) + N' DROP CONSTRAINT ' + QUOTENAME(@pk) + N';'
+                + N' ALTER TABLE dbo.' + QUOTENAME(@table) + N' DROP COLUMN id;';
+        EXEC (@sql);
+        SET @sql = N'dbo.' + @table + N'.id_new';
+        EXEC sp_rename @sql, N'id', N'COLUMN';
+        SET @sql = N'ALTER TABLE dbo.' + QUOTENAME(@table) + N' ADD PRIMARY KEY CLUSTERED (id);';
+        EXEC (@sql);
+    END
+
+    -- Hibernate (pooled) dùng khoảng (giá trị - 49 .. giá trị], nên giá trị đầu phải >= MAX(id) + 50
+    SET @sql = N'SELECT @start = COALESCE(MAX(id), 0) + 50 FROM dbo.' + QUOTENAME(@table) + N';';
+    EXEC sp_executesql @sql, N'@start bigint OUTPUT', @start = @start OUTPUT;
+
+    IF OBJECT_ID(N'dbo.' + @table + N'_seq', N'SO') IS NULL
+    BEGIN
+        SET @sql = N'CREATE SEQUENCE dbo.' + QUOTENAME(@table + N'_seq') + N' AS bigint START WITH '
+                + CAST(@start AS nvarchar(20)) + N' INCREMENT BY 50;';
+        EXEC (@sql);
+    END
+    ELSE
+    BEGIN
+        SELECT @current = CAST(current_value AS bigint) FROM sys.sequences
+        WHERE object_id = OBJECT_ID(N'dbo.' + @table + N'_seq');
+        IF @current < @start
+        BEGIN
+            SET @sql = N'ALTER SEQUENCE dbo.' + QUOTENAME(@table + N'_seq') + N' RESTART WITH '
+                    + CAST(@start AS nvarchar(20)) + N';';
+            EXEC (@sql);
+        END
+    END
+
+    FETCH NEXT FROM tables INTO @table;
+END
+CLOSE tables;
+DEALLOCATE tables;
+
+COMMIT TRANSACTION
+GO
@@ -1,5 +1,5 @@
 import axiosInstance from './axiosConfig';
-import { Cart, AddToCartRequest } from '@/types/cart.types';
+import { Cart, AddToCartRequest, CartOperation, GuestCart } from '@/types/cart.types';
 
 export const cartApi = {
   getCart: async (): Promise<Cart> => {
@@ -19,6 +19,27 @@ export const cartApi = {
     return response.data;
   },
 
+  // Nhiều thao tác trong một request/transaction
+  updateCart: async (operations: CartOperation[]): Promise<Cart> => {
+    const response = await axiosInstance.patch('/cart', { operations });
+    return response.data;
+  },
+
+  // Giỏ của khách chưa đăng nhập: token do server ký, client giữ và gửi lại
+  getGuestCart: async (token?: string): Promise<GuestCart> => {
+    const response = await axiosInstance.get('/cart/guest', {
+      headers: token ? { 'X-Guest-Cart': token } : undefined,
+    });
+    return response.data;
+  },
+
+  updateGuestCart: async (operations: CartOperation[], token?: string): Promise<GuestCart> => {
+    const response = await axiosInstance.patch('/cart/guest', { operations }, {
+      headers: token ? { 'X-Guest-Cart': token } : undefined,
+    });
+    return response.data;
+  },
+
   removeItem: async (itemId: number): Promise<{ message: string }> => {
     const response = await axiosInstance.delete(`/cart/remove/${itemId}`);
     return response.data;
@@ -1,5 +1,5 @@
 import axiosInstance from './axiosConfig';
-import { Order, OrderDetail, CreateOrderRequest, UpdateOrderStatusRequest, PageResponse, OrderStatus } from '@/types';
+import { Order, OrderDetail, CreateOrderRequest, UpdateOrderStatusRequest, PageResponse, OrderStatus, OrderTicket } from '@/types';
 
 export const orderApi = {
   create: async (data: CreateOrderRequest): Promise<OrderDetail> => {
@@ -7,6 +7,20 @@ export const orderApi = {
     return response.data;
   },
 
+  // Đặt hàng qua hàng đợi (chỉ khi backend bật app.order.intake.enabled)
+  createAsync: async (data: CreateOrderRequest): Promise<OrderTicket> => {
+    const response = await axiosInstance.post('/orders/async', data);
+    return response.data;
+  },
+
+  // wait > 0: server giữ yêu cầu tối đa wait giây đến khi phiếu xong
+  getTicket: async (ticketId: string, wait = 0): Promise<OrderTicket> => {
+    const response = await axiosInstance.get(`/orders/tickets/${ticketId}`, {
+      params: { wait },
+    });
+    return response.data;
+  },
+
   getMyOrders: async (page = 0, size = 10): Promise<PageResponse<Order>> => {
     const response = await axiosInstance.get('/orders', {
       params: { page, size },
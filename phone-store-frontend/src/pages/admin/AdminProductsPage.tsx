@@ -110,8 +110,16 @@ export const AdminProductsPage: React.FC = () => {
     }
   };
 
-  const handleOpenModal = (product?: Product) => {
+  const handleOpenModal = async (product?: Product) => {
     if (product) {
+      // Danh sách chỉ trả về bản tóm tắt, cần tải đầy đủ mô tả/thông số trước khi sửa
+      try {
+        product = await productApi.getById(product.id);
+      } catch (error) {
+        console.error('Failed to fetch product:', error);
+        toast.error('Không thể tải thông tin sản phẩm');
+        return;
+      }
       setEditingProduct(product);
       setFormData({
         name: product.name,
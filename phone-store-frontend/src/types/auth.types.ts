@@ -1,6 +1,7 @@
 export interface LoginRequest {
   username: string;
   password: string;
+  guestCart?: string; // token giỏ hàng khách, được gộp vào giỏ sau khi đăng nhập
 }
 
 export interface RegisterRequest {
@@ -20,3 +20,16 @@ export interface AddToCartRequest {
   productId: number;
   quantity: number;
 }
+
+export interface GuestCart {
+  token: string;
+  cart: Cart;
+}
+
+export type CartOperationType = 'ADD' | 'SET' | 'REMOVE';
+
+export interface CartOperation {
+  op: CartOperationType;
+  productId: number;
+  quantity?: number;
+}
@@ -63,6 +63,19 @@ export interface CreateOrderRequest {
   paymentMethod: PaymentMethod;
 }
 
+export type OrderTicketStatus = 'QUEUED' | 'PROCESSING' | 'COMPLETED' | 'FAILED';
+
+// Phiếu đặt hàng bất đồng bộ (POST /orders/async)
+export interface OrderTicket {
+  ticketId: string;
+  status: OrderTicketStatus;
+  orderId?: number;
+  orderCode?: string;
+  message?: string;
+  createdAt: string;
+  completedAt?: string;
+}
+
 export interface UpdateOrderStatusRequest {
   status: OrderStatus;
   description?: string;